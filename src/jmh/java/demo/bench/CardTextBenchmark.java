@@ -0,0 +1,69 @@
+package demo.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Java-side handling of card innerText lines as done in getNewsPost and searchResult
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardTextBenchmark {
+    private static final Pattern VIEWS = Pattern.compile("(?i).*views$");
+    private static final Pattern POSTED = Pattern.compile("(?i)\\d+\\s+(years?|months?|days?|hours?|minutes?|mins?)\\s+ago");
+
+    private final List<String> newsLines = List.of(
+        "NDTV", "\u2022", "2 hours ago", "Parliament passes the budget after a late night session",
+        "1.2K", "85");
+    private final List<String> searchLines = List.of(
+        "12:41", "Official Trailer | Upcoming Movie", "Studio Channel", "Verified",
+        "4.5M views", "3 weeks ago", "Watch the official trailer now", "4K", "CC");
+
+    // Join then re-split, as getNewsPost and searchResult do today
+    @Benchmark
+    public String[] joinSplit() {
+        String line = newsLines.stream().collect(Collectors.joining(" | "));
+        String[] parts = line.split("\\|");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        return parts;
+    }
+
+    @Benchmark
+    public String[] directIndex() {
+        return newsLines.toArray(new String[0]);
+    }
+
+    // String.matches compiles both patterns on every part
+    @Benchmark
+    public void classifyMatches(Blackhole bh) {
+        for (String part : searchLines) {
+            if (part.matches("(?i).*views$")) {
+                bh.consume(part);
+            } else if (part.matches("(?i)\\d+\\s+(years?|months?|days?|hours?|minutes?|mins?)\\s+ago")) {
+                bh.consume(part);
+            }
+        }
+    }
+
+    @Benchmark
+    public void classifyPrecompiled(Blackhole bh) {
+        for (String part : searchLines) {
+            if (VIEWS.matcher(part).matches()) {
+                bh.consume(part);
+            } else if (POSTED.matcher(part).matches()) {
+                bh.consume(part);
+            }
+        }
+    }
+}
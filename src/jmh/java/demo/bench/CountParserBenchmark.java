@@ -0,0 +1,38 @@
+package demo.bench;
+
+import demo.utils.CountParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Count parsing as testCase05 used to do it inline, against CountParser
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CountParserBenchmark {
+    @Param({"4.5M views", "1,234 views", "12K views"})
+    public String text;
+
+    @Benchmark
+    public long inline() {
+        String rawViews = text.trim().toLowerCase().split(" ")[0];
+        if (rawViews.endsWith("k")) {
+            return (long) (Double.parseDouble(rawViews.replace("k", "")) * 1_000);
+        } else if (rawViews.endsWith("m")) {
+            return (long) (Double.parseDouble(rawViews.replace("m", "")) * 1_000_000);
+        }
+        return Long.parseLong(rawViews.replaceAll("[^0-9]", ""));
+    }
+
+    @Benchmark
+    public long parser() {
+        return CountParser.parse(text);
+    }
+}
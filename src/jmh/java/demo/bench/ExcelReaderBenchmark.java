@@ -0,0 +1,50 @@
+package demo.bench;
+
+import demo.utils.ExcelRowIterator;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+// Compares the streaming sheet reader against the XSSFWorkbook load it replaced
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExcelReaderBenchmark {
+    private final File file = new File(System.getProperty("bench.excel", "src/test/resources/data.xlsx"));
+
+    @Benchmark
+    public void streaming(Blackhole bh) {
+        try (ExcelRowIterator rows = new ExcelRowIterator(file, 1, true)) {
+            while (rows.hasNext()) {
+                bh.consume(rows.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void workbook(Blackhole bh) throws Exception {
+        try (InputStream in = new FileInputStream(file); Workbook workbook = new XSSFWorkbook(in)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (int i = sheet.getFirstRowNum() + 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row != null && row.getCell(0) != null) {
+                    bh.consume(row.getCell(0).toString());
+                }
+            }
+        }
+    }
+}
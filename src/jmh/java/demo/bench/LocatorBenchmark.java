@@ -0,0 +1,45 @@
+package demo.bench;
+
+import demo.utils.Locator;
+import demo.utils.LocatorRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// XPath construction per call, as checkFilm/checkMusic/checkNews/navigateSidebar did, against the compiled registry
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocatorBenchmark {
+    private static final String TITLE = "//ytd-guide-entry-renderer//a[@title='%s']";
+    private static final String TEXT = "//ytd-guide-entry-renderer//a[normalize-space()='%1$s' or .//*[normalize-space()='%1$s']]";
+    private static final String GUIDE = "//div[contains(@id,'guide-links')]/a[contains(@text(),'%s') or normalize-space()='%1$s' or contains(@href,'%s')]";
+
+    @Param({"About", "Films"})
+    public String tab;
+
+    @Benchmark
+    public String sidebarFormat() {
+        return String.format(TITLE, tab) + "|" + String.format(TEXT, tab) + "|"
+            + String.format(GUIDE, tab, tab.toLowerCase(Locale.ROOT));
+    }
+
+    @Benchmark
+    public Locator sidebarCompiled() {
+        return LocatorRegistry.compile("bench-sidebar", tab, () -> Locator.xpath(sidebarFormat()));
+    }
+
+    @Benchmark
+    public String filmFormat() {
+        String section = String.format("//ytd-item-section-renderer%s", String.format("[.//span[contains(text(),'%s')]]", "Top selling"));
+        return section + String.format("//ytd-grid-movie-renderer[position()=%s]", "last()");
+    }
+}
@@ -8,8 +8,10 @@ import org.openqa.selenium.chrome.ChromeDriverService;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.logging.LogType;
 import org.openqa.selenium.logging.LoggingPreferences;
+import org.openqa.selenium.remote.http.ClientConfig;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
@@ -19,30 +21,51 @@ import org.testng.Assert;
 import org.testng.Reporter;
 
 import java.beans.Transient;
+import java.lang.reflect.Method;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import demo.utils.BlockingProfile;
+import demo.utils.BrowserProfile;
+import demo.utils.DriverLogFilter;
+import demo.utils.DriverPool;
 import demo.utils.ExcelDataProvider;
+import demo.utils.FailureArtifacts;
 import demo.utils.Helpers;
+import demo.utils.HttpCache;
+import demo.utils.LocatorRegistry;
+import demo.utils.RequestBlocker;
+import demo.utils.ResultWriter;
+import demo.utils.StepTimer;
+import demo.wrappers.KeywordFanOut;
+import demo.wrappers.KeywordRun;
+import demo.wrappers.NewsPost;
 import demo.wrappers.Wrappers;
 import static demo.utils.Helpers.logCommand;
 
 public class TestCases extends ExcelDataProvider{
-    ChromeDriver driver;
-    Wrappers wrappers;
-    Helpers h;
-    SoftAssert softAssert;
+    DriverPool pool;
 
-    @BeforeTest
+    // Always run so the fan-out suite, which selects only the "fanout" group, still gets its browsers
+    @BeforeTest(alwaysRun = true)
     public void startBrowser() {
         System.out.println("Starting browser for test execution...");
         System.setProperty("java.util.logging.config.file", "logging.properties");
         Logger.getLogger("org.openqa.selenium.remote.http.WebSocket$Listener").setLevel(Level.SEVERE);
 
+        pool = DriverPool.start(this::launchBrowser);
+    }
+
+    // Launches one fully configured browser, called by the pool for each worker
+    ChromeDriver launchBrowser() {
         ChromeOptions options = new ChromeOptions();
         LoggingPreferences logs = new LoggingPreferences();
 
@@ -50,21 +73,56 @@ public class TestCases extends ExcelDataProvider{
         logs.enable(LogType.DRIVER, Level.ALL);
         options.setCapability("goog:loggingPrefs", logs);
         options.addArguments("--remote-allow-origins=*");
+        RequestBlocker.configure(options, BlockingProfile.forClass(getClass()));
+        // Fan-out tabs load in the background, so Chrome must not throttle them while another tab is in front
+        if (KeywordFanOut.tabs() > 1) {
+            options.addArguments("--disable-background-timer-throttling", "--disable-renderer-backgrounding",
+                "--disable-backgrounding-occluded-windows");
+        }
+        BrowserProfile.configure(options);
 
-        System.setProperty(ChromeDriverService.CHROME_DRIVER_LOG_PROPERTY, "build/chromedriver.log");
-
-        driver = new ChromeDriver(options);
+        // Each chromedriver gets its own log, they are merged into chromedriver.log once the browsers have quit
+        ChromeDriverService service = new ChromeDriverService.Builder()
+            .withLogFile(DriverLogFilter.sessionLog())
+            // The log filter cuts the raw log back once it has read it, which only takes effect in append mode
+            .withAppendLog(true)
+            .build();
+        // Every command the driver sends is counted against the Wrappers/Helpers step that issued it
+        ClientConfig client = ClientConfig.defaultConfig().withFilter(StepTimer.roundTripFilter());
+        ChromeDriver driver = new ChromeDriver(service, options, client);
 
+        BrowserProfile.checkBrowserVersion(driver.getCapabilities().getBrowserVersion());
         driver.manage().window().maximize();
-        wrappers = new Wrappers(driver);
-        h = new Helpers(driver);
-        softAssert = new SoftAssert();
+        HttpCache.attach(driver);
+        return driver;
+    }
+
+    @BeforeMethod(alwaysRun = true)
+    public void leaseBrowser() throws InterruptedException {
+        ChromeDriver driver = pool.lease().driver;
+        RequestBlocker.apply(driver, BlockingProfile.forClass(getClass()));
+        HttpCache.mark(driver);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void releaseBrowser(Method method) {
+        DriverPool.Session session = pool.peek();
+        if (session != null) {
+            HttpCache.report(session.driver, method.getName());
+        }
+        pool.release();
     }
     
-    @AfterTest
+    @AfterTest(alwaysRun = true)
     public void endTest() {
-        if (driver != null) {
-            driver.quit();
+        LocatorRegistry.logStats();
+        StepTimer.export();
+        ResultWriter.closeAll();
+        FailureArtifacts.drain();
+        // A reused pool outlives this <test> and is shut down by its JVM hook instead
+        if (pool != null && !DriverPool.reuse()) {
+            pool.shutdown();
+            DriverLogFilter.finishSessions();
         }
         System.out.println("Browser closed. Test execution completed.");
     }
@@ -76,6 +134,9 @@ public class TestCases extends ExcelDataProvider{
                     +"Click on \"About\" at the bottom of the sidebar."
                     +"Print the message on the screen.");
         logCommand("Start Testcase", "testCase01");
+        ChromeDriver driver = pool.current().driver;
+        Wrappers wrappers = pool.current().wrappers;
+        SoftAssert softAssert = new SoftAssert();
 
         String url = "https://www.youtube.com";
         wrappers.navigate(url);
@@ -98,6 +159,8 @@ public class TestCases extends ExcelDataProvider{
                     +"Apply a Soft Assert on whether the movie is marked \"A\" for Mature or not."
                     +"Apply a Soft assert on the movie category to check if it exists ex: \"Comedy\", \"Animation\", \"Drama\".");
         logCommand("Start Testcase", "testCase02");
+        Wrappers wrappers = pool.current().wrappers;
+        SoftAssert softAssert = new SoftAssert();
 
         String url = "https://www.youtube.com";
         wrappers.navigate(url);
@@ -118,6 +181,8 @@ public class TestCases extends ExcelDataProvider{
                     +"In the 1st section, print the name of the playlist on the most right."
                     +"Soft Assert on whether the number of tracks listed is less than or equal to 50.");
         logCommand("Start Testcase", "testCase03");
+        Wrappers wrappers = pool.current().wrappers;
+        SoftAssert softAssert = new SoftAssert();
 
         String url = "https://www.youtube.com";
         wrappers.navigate(url);
@@ -137,6 +202,7 @@ public class TestCases extends ExcelDataProvider{
                     +"Print the title and body of the 1st 3 \"Latest News Posts\","
                     +"along with the sum of the number of likes on all 3 of them. No likes given means 0.");
         logCommand("Start Testcase", "testCase04");
+        Wrappers wrappers = pool.current().wrappers;
 
         String url = "https://www.youtube.com";
         wrappers.navigate(url);
@@ -144,11 +210,10 @@ public class TestCases extends ExcelDataProvider{
         String tab = "News";
         wrappers.navigateSidebar(tab);
 
-        int totalLikes = 0;
-        for (int i = 1; i <= 3; i++) {
-            Map<String, String> newsDetails = wrappers.getNewsPost("Latest news posts", String.valueOf(i));
-            logCommand(String.format("News Details for Post %d", i), "\n\t"+newsDetails.getOrDefault("title", "Title not found"));
-            totalLikes += Integer.parseInt(newsDetails.getOrDefault("likes", "0"));
+        long totalLikes = 0;
+        for (NewsPost post : wrappers.getNewsPosts("Latest news posts", 1, 3)) {
+            logCommand(String.format("News Details for Post %d", post.position()), "\n\t"+post.title()+"\n\t"+post.body());
+            totalLikes += post.likes();
         }
         logCommand("Total Likes", String.valueOf(totalLikes));
 
@@ -165,6 +230,7 @@ public class TestCases extends ExcelDataProvider{
                     +"Search for each of the items given in the stubs: src/test/resources/data.xlsx. "
                     +"Keep scrolling till the sum of each video\'s views reach 10 Cr.");
         logCommand("Start Testcase", "testCase05");
+        Wrappers wrappers = pool.current().wrappers;
 
         String url = "https://www.youtube.com";
         wrappers.navigate(url);
@@ -172,27 +238,40 @@ public class TestCases extends ExcelDataProvider{
         logCommand("Search", searchKeyword);
         wrappers.search(searchKeyword);
 
-        int totalViews = 0;
-        int position = 1;
-        while (totalViews < 100000000) {
-            Map<String, String> result = wrappers.searchResult(searchKeyword, String.valueOf(position));
-            String rawViews = result.getOrDefault("views", "0").trim().toLowerCase().split(" ")[0];
-            long views;
-            if (rawViews.endsWith("k")) {
-                views = (long)(Double.parseDouble(rawViews.replace("k","")) * 1_000);
-            } else if (rawViews.endsWith("m")) {
-                views = (long)(Double.parseDouble(rawViews.replace("m","")) * 1_000_000);
-            } else {
-                views = Long.parseLong(rawViews.replaceAll("[^0-9]", ""));
-            }
-            totalViews += views;
-            logCommand(String.format("Video %d", position), String.format("%d views", views));
-            if (totalViews >= 100000000) {
-                logCommand("Threshold reached", "Total views have reached 10 Cr with "+position+" videos.");
-                break;
-            }
-            position++;
+        // The stream keeps the next continuation loading while earlier cards are summed and stops at 10 Cr
+        AtomicLong totalViews = new AtomicLong();
+        AtomicInteger position = new AtomicInteger();
+        wrappers.searchStream(searchKeyword)
+            .prefetch(10)
+            .stopWhen(result -> totalViews.get() >= 100000000)
+            .stream()
+            .forEach(result -> {
+                totalViews.addAndGet(result.views());
+                logCommand(String.format("Video %d", position.incrementAndGet()), String.format("%d views", result.views()));
+            });
+        if (totalViews.get() >= 100000000) {
+            logCommand("Threshold reached", "Total views have reached 10 Cr with "+position.get()+" videos.");
+        } else {
+            logCommand("Search Result Warning", "No more results after " + position.get() + " videos.");
         }
         logCommand("End Testcase","testCase05");
     }
+
+    // Kept out of testng.xml by its group, ./gradlew fanOutTest [-Dsearch.fanout.tabs=N] runs it on its own
+    @Test(description = "Testcase 05 fan-out: all keywords searched concurrently in tabs of one browser", groups = "fanout")
+    public void testCase05FanOut() throws Exception {
+        Reporter.log("testCase05FanOut: "
+                    +"Search every keyword in src/test/resources/data.xlsx at once, one tab per worker, "
+                    +"keep reading results till each keyword's views reach 10 Cr. Tabs set with -Dsearch.fanout.tabs=N.");
+        int tabs = KeywordFanOut.tabs();
+        logCommand("Start Testcase", "testCase05FanOut");
+        Wrappers wrappers = pool.current().wrappers;
+
+        List<String> keywords = new ArrayList<>();
+        ExcelDataProvider.excelData().forEachRemaining(row -> keywords.add(String.valueOf(row[0])));
+        List<KeywordRun> runs = wrappers.fanOut(tabs).run(keywords, 100000000);
+        Assert.assertEquals(runs.size(), keywords.size(), "Not every keyword finished");
+
+        logCommand("End Testcase","testCase05FanOut");
+    }
 }
@@ -0,0 +1,66 @@
+package demo.utils;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.List;
+
+// Named sets of requests that none of the suite's assertions read and that can be dropped before they hit the network
+public enum BlockingProfile {
+    NONE(),
+    LEAN(Category.MEDIA, Category.ADS, Category.TELEMETRY),
+    MINIMAL(Category.MEDIA, Category.ADS, Category.TELEMETRY, Category.THUMBNAILS);
+
+    public static final String PROPERTY = "blocking.profile";
+
+    // Selects the profile for every test in the annotated class, -Dblocking.profile overrides it
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public @interface Use {
+        BlockingProfile value();
+    }
+
+    public enum Category {
+        MEDIA("*googlevideo.com/videoplayback*", "*youtube.com/api/timedtext*"),
+        ADS("*doubleclick.net/*", "*googlesyndication.com/*", "*googleadservices.com/*",
+            "*youtube.com/pagead/*", "*youtube.com/api/stats/ads*", "*youtube.com/get_midroll_*"),
+        TELEMETRY("*youtube.com/api/stats/*", "*youtube.com/ptracking*", "*youtube.com/generate_204*",
+            "*youtube.com/youtubei/v1/log_event*", "*play.google.com/log*", "*google-analytics.com/*"),
+        THUMBNAILS("*i.ytimg.com/vi/*", "*i.ytimg.com/an_webp/*", "*yt3.ggpht.com/*");
+
+        private final String[] patterns;
+
+        Category(String... patterns) {
+            this.patterns = patterns;
+        }
+    }
+
+    private final Category[] categories;
+
+    BlockingProfile(Category... categories) {
+        this.categories = categories;
+    }
+
+    public List<String> urlPatterns() {
+        List<String> urls = new ArrayList<>();
+        for (Category category : categories) {
+            urls.addAll(List.of(category.patterns));
+        }
+        return urls;
+    }
+
+    public boolean blocks(Category category) {
+        return List.of(categories).contains(category);
+    }
+
+    public static BlockingProfile forClass(Class<?> testClass) {
+        String override = System.getProperty(PROPERTY);
+        if (override != null && !override.isBlank()) {
+            return valueOf(override.trim().toUpperCase());
+        }
+        Use use = testClass.getAnnotation(Use.class);
+        return use != null ? use.value() : NONE;
+    }
+}
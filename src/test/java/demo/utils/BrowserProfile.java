@@ -0,0 +1,263 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Opt-in (-Dprofile.enabled=true): gives each browser its own copy of a template user-data-dir that holds only the
+// YouTube consent cookie and Chrome's first-run state, so launches skip the consent wall and first-run work.
+// The template is seeded from a clean browser, never from a test worker, and is reseeded once it expires
+public final class BrowserProfile {
+    public static final String TEMPLATE_PROPERTY = "profile.template";
+    public static final String CLONES_PROPERTY = "profile.clones";
+    public static final String SEED_PROPERTY = "profile.seed";
+    public static final String ENABLED_PROPERTY = "profile.enabled";
+    public static final String MAX_AGE_PROPERTY = "profile.maxAgeHours";
+
+    // Bumped whenever seeding or stripping changes, older templates are then discarded
+    private static final int FORMAT = 1;
+    private static final String STAMP = "template.properties";
+    private static final String HOME_URL = "https://www.youtube.com";
+    private static final String CONSENT_XPATH = "//button[normalize-space()='Accept all' or .//*[normalize-space()='Accept all']"
+        + " or starts-with(@aria-label,'Accept')]";
+
+    // Chrome's per-process locks and crash state, copying them makes the clone refuse to start
+    private static final List<String> SKIPPED = List.of("SingletonLock", "SingletonSocket", "SingletonCookie",
+        "lockfile", "Crashpad", "BrowserMetrics", "ShaderCache", "GrShaderCache");
+
+    // Browsing state the seed visit leaves behind, a test must not start with it
+    private static final List<String> HISTORY = List.of("History", "History-journal", "Visited Links", "Top Sites",
+        "Top Sites-journal", "Favicons", "Favicons-journal", "Shortcuts", "Shortcuts-journal", "Sessions",
+        "Current Session", "Current Tabs", "Last Session", "Last Tabs", "Network Action Predictor",
+        "Network Action Predictor-journal");
+
+    // Preferences that change what pages load or render, blocking is applied per run by RequestBlocker instead
+    private static final List<String> STRIPPED_PREFS = List.of("default_content_setting_values",
+        "managed_default_content_settings", "content_settings");
+
+    private static final AtomicInteger WORKERS = new AtomicInteger();
+    // One seeding attempt per JVM, a browser that cannot seed should not delay every later launch
+    private static boolean seedTried;
+
+    private BrowserProfile() {
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "false"));
+    }
+
+    private static Path template() {
+        return Paths.get(System.getProperty(TEMPLATE_PROPERTY, "build/chrome-profile-template"));
+    }
+
+    private static Path clones() {
+        return Paths.get(System.getProperty(CLONES_PROPERTY, Shards.file("chrome-profiles").getPath()));
+    }
+
+    // Points the options at a fresh clone of the template, seeding the template first when it is missing or stale
+    public static Path configure(ChromeOptions options) {
+        if (!enabled()) {
+            return null;
+        }
+        ensureTemplate();
+        Path dir = clones().resolve("worker-" + WORKERS.incrementAndGet()).toAbsolutePath();
+        try {
+            delete(dir);
+            if (seeded()) {
+                copy(template(), dir);
+            } else {
+                Files.createDirectories(dir);
+            }
+        } catch (IOException e) {
+            logCommand("Browser Profile", "Unable to prepare " + dir + ": " + e.getMessage());
+            return null;
+        }
+        options.addArguments("--user-data-dir=" + dir);
+        // First-run and default-browser prompts only show on an unseeded profile, but they cost a launch either way
+        options.addArguments("--no-first-run", "--no-default-browser-check");
+        return dir;
+    }
+
+    // Whether a current template exists: same format, younger than the maximum age
+    public static boolean seeded() {
+        Properties stamp = stamp(template());
+        if (stamp == null || !String.valueOf(FORMAT).equals(stamp.getProperty("format"))) {
+            return false;
+        }
+        long seededAt = Long.parseLong(stamp.getProperty("seededAt", "0"));
+        long maxAge = Duration.ofHours(Long.getLong(MAX_AGE_PROPERTY, 24)).toMillis();
+        return System.currentTimeMillis() - seededAt < maxAge;
+    }
+
+    // A template written by another Chrome version is dropped, Chrome does not open profiles from newer versions
+    public static void checkBrowserVersion(String version) {
+        Properties stamp = stamp(template());
+        if (!enabled() || stamp == null || version == null || version.equals(stamp.getProperty("chrome"))) {
+            return;
+        }
+        logCommand("Browser Profile", String.format("Template was seeded by Chrome %s, running %s, it will be reseeded",
+            stamp.getProperty("chrome"), version));
+        try {
+            Files.deleteIfExists(template().resolve(STAMP));
+        } catch (IOException e) {
+            logCommand("Browser Profile", "Unable to expire template: " + e.getMessage());
+        }
+    }
+
+    private static synchronized void ensureTemplate() {
+        if (seedTried || seeded() || !Boolean.parseBoolean(System.getProperty(SEED_PROPERTY, "true"))) {
+            return;
+        }
+        seedTried = true;
+        // Shards may seed together, each stages its own copy and only the first move wins
+        Path staging = template().resolveSibling(template().getFileName() + ".tmp" + Shards.index()).toAbsolutePath();
+        try {
+            delete(staging);
+            String chrome = seed(staging);
+            strip(staging);
+            Properties stamp = new Properties();
+            stamp.setProperty("format", String.valueOf(FORMAT));
+            stamp.setProperty("chrome", chrome);
+            stamp.setProperty("seededAt", String.valueOf(System.currentTimeMillis()));
+            try (OutputStream out = Files.newOutputStream(staging.resolve(STAMP))) {
+                stamp.store(out, "Browser profile template");
+            }
+            if (!seeded()) {
+                delete(template());
+                Files.move(staging, template(), StandardCopyOption.ATOMIC_MOVE);
+                logCommand("Browser Profile", "Seeded template " + template() + " with Chrome " + chrome);
+            }
+        } catch (IOException | WebDriverException e) {
+            logCommand("Browser Profile", "Unable to seed template: " + e.getMessage());
+        } finally {
+            try {
+                delete(staging);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Opens YouTube once in a browser without the suite's blocking or logging and accepts the consent wall if shown
+    private static String seed(Path dir) {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new", "--user-data-dir=" + dir, "--no-first-run", "--no-default-browser-check");
+        ChromeDriver driver = new ChromeDriver(options);
+        try {
+            driver.get(HOME_URL);
+            try {
+                new WebDriverWait(driver, Duration.ofSeconds(5))
+                    .until(ExpectedConditions.elementToBeClickable(By.xpath(CONSENT_XPATH))).click();
+                new WebDriverWait(driver, Duration.ofSeconds(10)).until(ExpectedConditions.urlContains("youtube.com"));
+            } catch (TimeoutException e) {
+                logCommand("Browser Profile", "No consent prompt shown, seeding without one");
+            }
+            return driver.getCapabilities().getBrowserVersion();
+        } finally {
+            driver.quit();
+        }
+    }
+
+    // Removes history files and page-affecting content settings from every profile in the user-data-dir
+    private static void strip(Path dir) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            paths = walk.collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            if (!Files.exists(path)) {
+                continue;
+            } else if (HISTORY.contains(name)) {
+                delete(path);
+            } else if ("Preferences".equals(name) && Files.isRegularFile(path)) {
+                Json json = new Json();
+                Map<String, Object> prefs = json.toType(Files.readString(path, StandardCharsets.UTF_8), Json.MAP_TYPE);
+                Map<String, Object> profile = JsonValues.map(prefs.get("profile"));
+                if (profile != null) {
+                    STRIPPED_PREFS.forEach(profile::remove);
+                    prefs.put("profile", profile);
+                }
+                Files.writeString(path, json.toJson(prefs), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    private static Properties stamp(Path template) {
+        Path file = template.resolve(STAMP);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Properties stamp = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            stamp.load(in);
+        } catch (IOException e) {
+            logCommand("Browser Profile", "Unable to read " + file + ": " + e.getMessage());
+            return null;
+        }
+        return stamp;
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        Files.walkFileTree(from, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (SKIPPED.contains(dir.getFileName().toString()) && !dir.equals(from)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(to.resolve(from.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!SKIPPED.contains(file.getFileName().toString()) && attrs.isRegularFile()) {
+                    Files.copy(file, to.resolve(from.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            // Chrome may still be rotating a file while the copy runs, a missing file is not worth failing over
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package demo.utils;
+
+// Parses YouTube count text such as "1.2K views", "3,456 likes", "12,34,567 views", "1,2 M" or "No views" without allocating
+public final class CountParser {
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private CountParser() {
+    }
+
+    // Returns the first count in the text, or 0 when it has no digits
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length && !isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return 0;
+        }
+
+        long whole = 0;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                whole = whole * 10 + (c - '0');
+            } else if (c != ',' || !separatesGroups(text, i)) {
+                break;
+            }
+        }
+
+        // A comma that doesn't separate digit groups is a decimal comma, as in "1,2 M" for 1.2 million
+        long fraction = 0;
+        int fractionDigits = 0;
+        char mark = i < length ? text.charAt(i) : 0;
+        if (i + 1 < length && (mark == '.' || mark == ',') && isDigit(text.charAt(i + 1))) {
+            for (i++; i < length && isDigit(text.charAt(i)); i++) {
+                // Digits beyond the ninth can't change a whole-number result for the largest suffix
+                if (fractionDigits < POWERS_OF_TEN.length - 1) {
+                    fraction = fraction * 10 + (text.charAt(i) - '0');
+                    fractionDigits++;
+                }
+            }
+        }
+
+        while (i < length && isSpace(text.charAt(i))) {
+            i++;
+        }
+        long multiplier = multiplier(text, i);
+        long scale = POWERS_OF_TEN[fractionDigits];
+        return whole * multiplier + fraction * multiplier / scale;
+    }
+
+    // A thousands comma is followed by exactly three digits, a lakh/crore comma ("12,34,567") by two and another comma
+    private static boolean separatesGroups(CharSequence text, int comma) {
+        int end = comma + 1;
+        while (end < text.length() && isDigit(text.charAt(end))) {
+            end++;
+        }
+        int digits = end - comma - 1;
+        return digits == 3 || digits == 2 && end < text.length() && text.charAt(end) == ',';
+    }
+
+    // Reads a magnitude suffix starting at the given index, plain counts have a multiplier of 1
+    private static long multiplier(CharSequence text, int start) {
+        if (start >= text.length()) {
+            return 1;
+        }
+        switch (Character.toLowerCase(text.charAt(start))) {
+            case 'k':
+                return endsWord(text, start + 1) ? 1_000L : 1;
+            case 'm':
+                return endsWord(text, start + 1) ? 1_000_000L : 1;
+            case 'b':
+                return endsWord(text, start + 1) ? 1_000_000_000L : 1;
+            case 'l':
+                return matchesWord(text, start, "lakh") || matchesWord(text, start, "lac") ? 100_000L : 1;
+            case 'c':
+                return matchesWord(text, start, "crore") || matchesWord(text, start, "cr") ? 10_000_000L : 1;
+            default:
+                return 1;
+        }
+    }
+
+    private static boolean matchesWord(CharSequence text, int start, String word) {
+        if (start + word.length() > text.length()) {
+            return false;
+        }
+        for (int j = 0; j < word.length(); j++) {
+            if (Character.toLowerCase(text.charAt(start + j)) != word.charAt(j)) {
+                return false;
+            }
+        }
+        int end = start + word.length();
+        return endsWord(text, end) || Character.toLowerCase(text.charAt(end)) == 's' && endsWord(text, end + 1);
+    }
+
+    private static boolean endsWord(CharSequence text, int index) {
+        return index >= text.length() || !Character.isLetter(text.charAt(index));
+    }
+
+    // YouTube separates number and suffix with a regular, no-break or narrow no-break space depending on locale
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\u00a0' || c == '\u202f';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,60 @@
+package demo.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+// Count texts as YouTube renders them across locales, runs without a browser via ./gradlew offlineTest
+public class CountParserTest {
+
+    @DataProvider(name = "counts")
+    public static Object[][] counts() {
+        return new Object[][] {
+            // Plain and grouped counts
+            {"0 views", 0L},
+            {"No views", 0L},
+            {"", 0L},
+            {"987 views", 987L},
+            {"3,456 likes", 3456L},
+            {"1,234,567 views", 1234567L},
+            // Western suffixes
+            {"1.2K views", 1200L},
+            {"15K", 15000L},
+            {"3.4M views", 3400000L},
+            {"2.05B views", 2050000000L},
+            {"1,234.5K views", 1234500L},
+            // Indian grouping and lakh/crore
+            {"12,34,567 views", 1234567L},
+            {"1,00,000 views", 100000L},
+            {"12 lakh views", 1200000L},
+            {"1.5 lakhs views", 150000L},
+            {"3 lac views", 300000L},
+            {"10 crore views", 100000000L},
+            {"2.3 Cr views", 23000000L},
+            // Decimal comma
+            {"1,2", 1L}, // 1.2 counts as 1, not 12
+            {"1,2 M", 1200000L},
+            {"1,25 K", 1250L},
+            {"0,5B views", 500000000L},
+            // No-break and narrow no-break spaces between number and suffix
+            {"1.2\u00a0M views", 1200000L},
+            {"4,5\u202fk", 4500L},
+            {"7\u00a0K", 7000L},
+            // Suffix letters that start another word are not multipliers
+            {"5 comments", 5L},
+            {"12 months ago", 12L},
+            {"3 likes", 3L},
+            {"8 billion", 8L},
+        };
+    }
+
+    @Test(dataProvider = "counts")
+    public void parsesCount(String text, long expected) {
+        Assert.assertEquals(CountParser.parse(text), expected, "Parsed count of \"" + text + "\"");
+    }
+
+    @Test
+    public void nullIsZero() {
+        Assert.assertEquals(CountParser.parse(null), 0L);
+    }
+}
@@ -0,0 +1,372 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Tails the raw chromedriver log while tests run and keeps only the frames assess.py validates
+public class DriverLogFilter implements Runnable {
+    public static final String ENABLED_PROPERTY = "driver.log.filter";
+    public static final String MAX_RAW_BYTES_PROPERTY = "driver.log.maxRawBytes";
+
+    private static final String SEPARATOR = "[log-filter]";
+    private static final File INSTRUCTIONS = new File("assesment/INSTRUCTIONS.json");
+
+    // Every chromedriver writes its own log, concurrent sessions would otherwise interleave their multi-line frames
+    private static final List<File> SESSION_LOGS = new ArrayList<>();
+    private static final List<DriverLogFilter> SESSION_FILTERS = new ArrayList<>();
+
+    private final File raw;
+    // Set for a session's filter, whose compact log is later concatenated with the other sessions' logs
+    private final boolean part;
+    private final List<String> evidence;
+    private final long maxRawBytes;
+    private final BufferedWriter compact;
+    private final BufferedWriter filtered;
+    private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+    private final Thread thread;
+    private long offset;
+    // Offset the raw log was cut at, kept until the writer's next output shows whether it appends
+    private long cutAt = -1;
+    private boolean cutting = true;
+    private int actions;
+    private volatile boolean running = true;
+
+    // Parser state, mirrors construct_log_json in assesment/assess.py line for line
+    private String command, response;
+    private String selector;
+    private StringBuilder frame = new StringBuilder();
+
+    private DriverLogFilter(File raw, File compactLog, File filteredJson, List<String> evidence, long maxRawBytes) throws IOException {
+        this.raw = raw;
+        this.part = filteredJson == null;
+        this.evidence = evidence;
+        this.maxRawBytes = maxRawBytes;
+        compactLog.getAbsoluteFile().getParentFile().mkdirs();
+        this.compact = Files.newBufferedWriter(compactLog.toPath(), StandardCharsets.UTF_8);
+        if (part) {
+            this.filtered = new BufferedWriter(Writer.nullWriter());
+        } else {
+            filteredJson.getAbsoluteFile().getParentFile().mkdirs();
+            this.filtered = Files.newBufferedWriter(filteredJson.toPath(), StandardCharsets.UTF_8);
+        }
+        this.filtered.write("{\n    \"actions\": [");
+        this.thread = new Thread(this, "chromedriver-log-filter");
+        this.thread.setDaemon(true);
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    // Starts tailing the raw log, evidence strings come from the 'contains' validations in INSTRUCTIONS.json
+    public static DriverLogFilter start(File raw, File compactLog, File filteredJson, File instructions) throws IOException {
+        DriverLogFilter filter = new DriverLogFilter(raw, compactLog, filteredJson, evidence(instructions),
+            Long.getLong(MAX_RAW_BYTES_PROPERTY, 64L * 1024 * 1024));
+        filter.thread.start();
+        return filter;
+    }
+
+    // Log file for the next chromedriver, chromedriver-<n>.log, tailed into a compact chromedriver-<n>.log when filtering
+    public static synchronized File sessionLog() {
+        int number = SESSION_LOGS.size() + 1;
+        File log = Shards.file("chromedriver-" + number + ".log");
+        File raw = enabled() ? Shards.file("chromedriver-" + number + ".raw.log") : log;
+        raw.getParentFile().mkdirs();
+        try {
+            new FileOutputStream(raw).close();
+            if (enabled()) {
+                DriverLogFilter filter = new DriverLogFilter(raw, log, null, evidence(INSTRUCTIONS),
+                    Long.getLong(MAX_RAW_BYTES_PROPERTY, 64L * 1024 * 1024));
+                filter.thread.start();
+                SESSION_FILTERS.add(filter);
+            }
+        } catch (IOException e) {
+            logCommand("Driver Log", "Could not reset " + raw + ": " + e.getMessage());
+        }
+        SESSION_LOGS.add(log);
+        return raw;
+    }
+
+    // Called once the browsers have quit: concatenates the session logs in launch order into chromedriver.log,
+    // which assess.py reads, and rebuilds filtered_logs.json from it
+    public static synchronized void finishSessions() {
+        SESSION_FILTERS.forEach(DriverLogFilter::stop);
+        SESSION_FILTERS.clear();
+        if (SESSION_LOGS.isEmpty()) {
+            return;
+        }
+        File log = Shards.file("chromedriver.log");
+        try {
+            try (OutputStream out = new FileOutputStream(log)) {
+                for (File session : SESSION_LOGS) {
+                    if (session.isFile()) {
+                        Files.copy(session.toPath(), out);
+                    }
+                }
+            }
+            if (enabled()) {
+                rebuild(log, Shards.file("filtered_logs.json"), INSTRUCTIONS);
+            }
+            logCommand("Driver Log", SESSION_LOGS.size() + " session logs merged into " + log.getPath());
+        } catch (IOException e) {
+            logCommand("Driver Log", "Unable to merge session logs: " + e.getMessage());
+        }
+    }
+
+    // Rebuilds filtered_logs.json from a finished log in one pass, e.g. after shard logs are concatenated
+    public static void rebuild(File log, File filteredJson, File instructions) throws IOException {
+        File scratch = File.createTempFile("chromedriver", ".log");
+        try {
+            new DriverLogFilter(log, scratch, filteredJson, evidence(instructions), Long.MAX_VALUE).stop();
+        } finally {
+            scratch.delete();
+        }
+    }
+
+    // Drains whatever chromedriver wrote last and closes both outputs
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(10_000);
+            synchronized (this) {
+                poll();
+                if (partial.size() > 0) {
+                    line(new String(partial.toByteArray(), StandardCharsets.UTF_8));
+                    partial.reset();
+                }
+                // assess.py never emits the frame still open at end of file, so it only goes to the compact log.
+                // A session's log is followed by the next session's, where that frame is emitted like any other
+                if (part) {
+                    emit(command, response);
+                } else {
+                    writeCompact(command, response);
+                }
+                filtered.write(actions == 0 ? "]\n}" : "\n    ]\n}");
+                filtered.close();
+                compact.close();
+            }
+            logCommand("Driver Log Filter", actions + " evidence frames kept from " + raw.getName());
+        } catch (IOException | InterruptedException e) {
+            logCommand("Driver Log Filter", "Unable to finish filtered logs: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                synchronized (this) {
+                    poll();
+                }
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                logCommand("Driver Log Filter", e.getMessage());
+            }
+        }
+    }
+
+    private void poll() throws IOException {
+        if (!raw.isFile()) {
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(raw, "rw")) {
+            long length = file.length();
+            if (cutAt >= 0 && length > 0) {
+                skipHole(file, length);
+            }
+            if (length < offset) {
+                offset = 0;
+            }
+            file.seek(offset);
+            byte[] buffer = new byte[64 * 1024];
+            while (offset < length) {
+                int read = file.read(buffer, 0, (int) Math.min(buffer.length, length - offset));
+                if (read < 0) {
+                    break;
+                }
+                offset += read;
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        partial.write(buffer, start, i - start);
+                        line(new String(partial.toByteArray(), StandardCharsets.UTF_8));
+                        partial.reset();
+                        start = i + 1;
+                    }
+                }
+                partial.write(buffer, start, read - start);
+            }
+            compact.flush();
+            filtered.flush();
+            // Once everything is consumed the raw log is cut back so its size stays bounded on long runs.
+            // This needs a writer in append mode, chromedriver is launched with --append-log for it
+            if (cutting && offset >= maxRawBytes && file.length() == offset) {
+                file.setLength(0);
+                cutAt = offset;
+                offset = 0;
+            }
+        }
+    }
+
+    // A writer that does not append keeps its old position after a cut, so its next line lands at cutAt behind a
+    // run of NUL bytes. Log lines never start with NUL: the hole is skipped without reading it and cutting stops
+    private void skipHole(RandomAccessFile file, long length) throws IOException {
+        file.seek(0);
+        if (file.read() == 0 && length >= cutAt) {
+            offset = cutAt;
+            cutting = false;
+            logCommand("Driver Log Filter", raw.getName() + " is not written in append mode, it is no longer cut");
+        }
+        cutAt = -1;
+    }
+
+    private void line(String rawLine) throws IOException {
+        String line = rawLine.strip();
+        if (line.contains("[INFO]") && line.contains("COMMAND")) {
+            emit(command, response);
+            selector = "COMMAND";
+            command = null;
+            response = null;
+            frame = new StringBuilder();
+        } else if (line.contains("[INFO]") && line.contains("RESPONSE")) {
+            selector = "RESPONSE";
+        }
+
+        if (selector != null) {
+            if (line.startsWith("[") && frame.length() == 0) {
+                frame.append(line);
+                assign();
+            } else if (line.startsWith("[") && frame.length() != 0) {
+                frame = new StringBuilder();
+                selector = null;
+            } else {
+                frame.append(line);
+                assign();
+            }
+        }
+    }
+
+    private void assign() {
+        if ("COMMAND".equals(selector)) {
+            command = frame.toString();
+        } else {
+            response = frame.toString();
+        }
+    }
+
+    private void emit(String cmd, String resp) throws IOException {
+        if (contains(cmd, "COMMAND ExecuteScript") || contains(resp, "COMMAND ExecuteScript")) {
+            return;
+        }
+        // Like assess.py the first action is the empty frame before any command, the compact log recreates it by itself
+        boolean first = actions == 0;
+        if (!first && !isEvidence(cmd, resp)) {
+            return;
+        }
+        filtered.write(first ? "\n" : ",\n");
+        filtered.write("        {\n            \"COMMAND\": " + jsonString(cmd)
+            + ",\n            \"RESPONSE\": " + jsonString(resp) + "\n        }");
+        actions++;
+        if (!first) {
+            writeCompact(cmd, resp);
+        }
+    }
+
+    // Writes a frame so construct_log_json rebuilds exactly the same action from the compact log
+    private void writeCompact(String cmd, String resp) throws IOException {
+        if (cmd == null) {
+            return;
+        }
+        compact.write(cmd);
+        compact.write('\n');
+        compact.write(SEPARATOR);
+        compact.write('\n');
+        if (resp != null) {
+            compact.write(resp);
+            compact.write('\n');
+            compact.write(SEPARATOR);
+            compact.write('\n');
+        }
+    }
+
+    private boolean isEvidence(String cmd, String resp) {
+        if (evidence.isEmpty()) {
+            return true;
+        }
+        for (String value : evidence) {
+            if (contains(cmd, value) || contains(resp, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(String text, String value) {
+        return text != null && text.contains(value);
+    }
+
+    // An empty list means every frame is kept, which is also the answer when any 'does not contain' check exists
+    private static List<String> evidence(File instructions) throws IOException {
+        List<String> values = new ArrayList<>();
+        if (instructions == null || !instructions.isFile()) {
+            return values;
+        }
+        Map<String, Object> root = new Json().toType(Files.readString(instructions.toPath()), Json.MAP_TYPE);
+        for (Object test : (List<?>) root.getOrDefault("instruction_set", List.of())) {
+            for (Object check : (List<?>) ((Map<?, ?>) test).get("chrome_log_assessment")) {
+                for (Object validation : (List<?>) ((Map<?, ?>) check).get("validations")) {
+                    Map<?, ?> v = (Map<?, ?>) validation;
+                    if (!"contains".equals(v.get("operator"))) {
+                        return new ArrayList<>();
+                    }
+                    values.add(String.valueOf(v.get("expected_value")));
+                }
+            }
+        }
+        return values;
+    }
+
+    // Same escaping as Python's json.dump with its default ensure_ascii
+    private static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder out = new StringBuilder(value.length() + 16).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                case '\b': out.append("\\b"); break;
+                case '\f': out.append("\\f"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e && c != 0x7f) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"').toString();
+    }
+}
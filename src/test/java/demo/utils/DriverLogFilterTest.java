@@ -0,0 +1,93 @@
+package demo.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+// Cutting the raw log while a writer still has it open, runs without a browser via ./gradlew offlineTest
+public class DriverLogFilterTest {
+    private static final long MAX_RAW_BYTES = 1024;
+
+    private File raw;
+    private File compact;
+    private File filtered;
+
+    @BeforeMethod
+    public void files() throws IOException {
+        raw = File.createTempFile("chromedriver", ".raw.log");
+        compact = File.createTempFile("chromedriver", ".log");
+        filtered = File.createTempFile("filtered_logs", ".json");
+        System.setProperty(DriverLogFilter.MAX_RAW_BYTES_PROPERTY, String.valueOf(MAX_RAW_BYTES));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() {
+        System.clearProperty(DriverLogFilter.MAX_RAW_BYTES_PROPERTY);
+        raw.delete();
+        compact.delete();
+        filtered.delete();
+    }
+
+    @Test
+    public void appendingWriterIsCutBack() throws Exception {
+        try (OutputStream out = new FileOutputStream(raw, true)) {
+            DriverLogFilter filter = DriverLogFilter.start(raw, compact, filtered, null);
+            writeFrames(out, 1, 30);
+            awaitCut();
+            writeFrames(out, 31, 35);
+            Assert.assertTrue(raw.length() < MAX_RAW_BYTES, "Raw log grew back to " + raw.length() + " bytes");
+            filter.stop();
+        }
+        assertAllFrames(35);
+    }
+
+    @Test
+    public void nonAppendingWriterLeavesNoHoleInTheOutput() throws Exception {
+        try (OutputStream out = new FileOutputStream(raw)) {
+            DriverLogFilter filter = DriverLogFilter.start(raw, compact, filtered, null);
+            writeFrames(out, 1, 30);
+            awaitCut();
+            // The stream still writes at its old position, the bytes before it read back as NUL
+            writeFrames(out, 31, 35);
+            writeFrames(out, 36, 60);
+            filter.stop();
+        }
+        assertAllFrames(60);
+    }
+
+    private void writeFrames(OutputStream out, int from, int to) throws IOException {
+        StringBuilder frames = new StringBuilder();
+        for (int i = from; i <= to; i++) {
+            frames.append("[1772277829.550][INFO]: [session] COMMAND Navigate {\"url\": \"https://www.youtube.com/")
+                .append(i).append("\"}\n")
+                .append("[1772277829.551][INFO]: [session] RESPONSE Navigate\n");
+        }
+        out.write(frames.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void awaitCut() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (raw.length() > 0) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline, "Raw log was never cut");
+            Thread.sleep(50);
+        }
+    }
+
+    private void assertAllFrames(int count) throws IOException {
+        String log = Files.readString(compact.toPath(), StandardCharsets.UTF_8);
+        Assert.assertFalse(log.indexOf('\0') >= 0, "Compact log holds NUL bytes");
+        for (int i = 1; i <= count; i++) {
+            Assert.assertTrue(log.contains("https://www.youtube.com/" + i + "\""), "Frame " + i + " missing");
+        }
+        Assert.assertEquals(log.split("COMMAND Navigate", -1).length - 1, count, "Frames in the compact log");
+    }
+}
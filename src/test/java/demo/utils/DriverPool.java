@@ -0,0 +1,233 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import demo.wrappers.Wrappers;
+
+import org.openqa.selenium.chrome.ChromeDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class DriverPool {
+    public static final String SIZE_PROPERTY = "driver.pool.size";
+    public static final String WARMUP_PROPERTY = "driver.pool.warmup";
+    public static final String LEASE_TIMEOUT_PROPERTY = "driver.pool.leaseTimeoutSeconds";
+    public static final String REUSE_PROPERTY = "driver.pool.reuse";
+
+    private static DriverPool instance;
+
+    private final Supplier<ChromeDriver> factory;
+    private final int size;
+    private final long leaseTimeoutSeconds;
+    private final LinkedBlockingDeque<Session> idle = new LinkedBlockingDeque<>();
+    private final List<Session> all = new ArrayList<>();
+    private final ThreadLocal<Session> leased = new ThreadLocal<>();
+    private int launched;
+    // Wall-clock time from launch request to a ready browser, one entry per browser started by this pool
+    private final List<Long> launchMillis = new ArrayList<>();
+    private boolean closed;
+
+    // One browser with its own Wrappers and Helpers, owned by a single worker thread while leased
+    public static final class Session {
+        public final ChromeDriver driver;
+        public final Wrappers wrappers;
+        public final Helpers helpers;
+
+        Session(ChromeDriver driver) {
+            this.driver = driver;
+            this.wrappers = new Wrappers(driver);
+            this.helpers = wrappers.helpers;
+        }
+    }
+
+    public DriverPool(Supplier<ChromeDriver> factory, int size, long leaseTimeoutSeconds) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1.");
+        }
+        this.factory = factory;
+        this.size = size;
+        this.leaseTimeoutSeconds = leaseTimeoutSeconds;
+    }
+
+    // Creates the shared pool from system properties, or returns the one already started
+    public static synchronized DriverPool start(Supplier<ChromeDriver> factory) {
+        if (instance == null || instance.isClosed()) {
+            int defaultSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            int size = Integer.getInteger(SIZE_PROPERTY, defaultSize);
+            int warmup = Integer.getInteger(WARMUP_PROPERTY, 1);
+            long timeout = Long.getLong(LEASE_TIMEOUT_PROPERTY, 600L);
+            instance = new DriverPool(factory, size, timeout);
+            logCommand("Driver Pool", String.format("size=%d warmup=%d reuse=%b", size, warmup, reuse()));
+            if (reuse()) {
+                // Later <test> blocks and classes lease the same browsers, they are quit once when the JVM exits
+                DriverPool pool = instance;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    pool.shutdown();
+                    DriverLogFilter.finishSessions();
+                }, "driver-pool-shutdown"));
+            }
+            instance.warmUp(warmup);
+        }
+        return instance;
+    }
+
+    // Whether the suite keeps its browsers alive across test classes instead of quitting them after each <test>
+    public static boolean reuse() {
+        return Boolean.getBoolean(REUSE_PROPERTY);
+    }
+
+    public static synchronized DriverPool get() {
+        if (instance == null) {
+            throw new IllegalStateException("Driver pool has not been started.");
+        }
+        return instance;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Launches browsers concurrently so the first leases don't pay the startup cost one by one
+    public void warmUp(int count) {
+        int target = Math.min(count, size);
+        List<CompletableFuture<Session>> launches = new ArrayList<>();
+        for (int i = 0; i < target && reserve(); i++) {
+            launches.add(CompletableFuture.supplyAsync(this::newSession));
+        }
+        // Every launch is waited for so the browsers that did start are pooled even when another one failed.
+        // A failed launch has already given back its slot, a later lease() launches again
+        for (CompletableFuture<Session> launch : launches) {
+            try {
+                idle.offer(launch.join());
+            } catch (CompletionException e) {
+                logCommand("Driver Pool", "Warm-up launch failed: " + e.getCause());
+            }
+        }
+    }
+
+    public Session lease() throws InterruptedException {
+        Session session = leased.get();
+        if (session != null) {
+            return session;
+        }
+        session = idle.pollFirst();
+        if (session == null && reserve()) {
+            session = newSession();
+        }
+        if (session == null) {
+            session = idle.pollFirst(leaseTimeoutSeconds, TimeUnit.SECONDS);
+            if (session == null) {
+                throw new IllegalStateException("Timed out waiting for a pooled browser.");
+            }
+        }
+        leased.set(session);
+        Helpers.bind(session.driver);
+        return session;
+    }
+
+    // Returns the calling thread's session, or null when nothing is leased
+    public Session peek() {
+        return leased.get();
+    }
+
+    public Session current() {
+        Session session = leased.get();
+        if (session == null) {
+            throw new IllegalStateException("No browser leased on " + Thread.currentThread().getName());
+        }
+        return session;
+    }
+
+    public void release() {
+        Session session = leased.get();
+        if (session == null) {
+            return;
+        }
+        leased.remove();
+        Helpers.unbind();
+        // After shutdown the browser has already been quit, so it is simply dropped
+        if (!isClosed()) {
+            idle.offerFirst(session);
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    public void shutdown() {
+        List<Session> sessions;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            logLaunchTimes();
+            sessions = new ArrayList<>(all);
+            all.clear();
+            launched = 0;
+        }
+        idle.clear();
+        sessions.parallelStream().forEach(DriverPool::quit);
+    }
+
+    // Counts a slot before the browser is launched so concurrent leases can't overshoot the pool size
+    private synchronized boolean reserve() {
+        if (closed || launched >= size) {
+            return false;
+        }
+        launched++;
+        return true;
+    }
+
+    private Session newSession() {
+        Session session;
+        long started = System.nanoTime();
+        try {
+            session = StepTimer.time("launchBrowser", () -> new Session(factory.get()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                launched--;
+            }
+            throw e;
+        }
+        long millis = (System.nanoTime() - started) / 1000000;
+        int number;
+        synchronized (this) {
+            all.add(session);
+            launchMillis.add(millis);
+            number = launchMillis.size();
+        }
+        logCommand("Driver Pool", String.format("Browser %d ready in %d ms", number, millis));
+        return session;
+    }
+
+    // Cold-start cost of the run, paid once per browser and so once per shard
+    private void logLaunchTimes() {
+        if (launchMillis.isEmpty()) {
+            return;
+        }
+        long total = launchMillis.stream().mapToLong(Long::longValue).sum();
+        long max = launchMillis.stream().mapToLong(Long::longValue).max().getAsLong();
+        logCommand("Driver Pool", String.format("%d browsers started in %d ms total, avg %d ms, max %d ms, profile %s",
+            launchMillis.size(), total, total / launchMillis.size(), max,
+            BrowserProfile.seeded() ? "from template" : "empty"));
+    }
+
+    private static void quit(Session session) {
+        LogSink.close(session.driver);
+        HttpCache.detach(session.driver);
+        RequestBlocker.detach(session.driver);
+        PageMetrics.detach(session.driver);
+        try {
+            session.driver.quit();
+        } catch (RuntimeException e) {
+            logCommand("Driver Pool", "Failed to quit browser: " + e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,38 @@
 package demo.utils;
 import static demo.utils.Helpers.logCommand;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
 import org.testng.annotations.DataProvider;
 
 public class ExcelDataProvider {
 
-    @DataProvider(name = "excelData")
-    public static Object[][] excelData() {
+    // Rows owned by another shard are left out, so each forked JVM only searches its share of the sheet
+    @DataProvider(name = "excelData", parallel = true)
+    public static Iterator<Object[]> excelData(Method method) {
+        Iterator<Object[]> rows = excelData();
+        if (!Shards.active()) {
+            return rows;
+        }
+        List<Object[]> owned = new ArrayList<>();
+        rows.forEachRemaining(row -> {
+            if (Shards.owns(method.getName(), row)) {
+                owned.add(row);
+            }
+        });
+        return owned.iterator();
+    }
+
+    public static Iterator<Object[]> excelData() {
         String fileLocation = System.getProperty("user.dir")+"/src/test/resources/data.xlsx";
         logCommand("Fetching excel file from", fileLocation);
-        return ExcelReaderUtil.readExcelData(fileLocation);
+        return ExcelReaderUtil.streamExcelData(fileLocation, 1);
     }
     public static void main(String args[]){
-        excelData();
+        excelData().forEachRemaining(row -> logCommand("Row", Arrays.toString(row)));
     }
-}
\ No newline at end of file
+}
@@ -1,94 +1,216 @@
 package demo.utils;
 import static demo.utils.Helpers.logCommand;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-
-import java.io.DataInputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class ExcelReaderUtil {
+    public static final String CACHE_DIR_PROPERTY = "excel.cache.dir";
+
+    // Parsed rows are written here keyed by source file so unchanged sheets are never parsed twice
+    private static final File CACHE_DIR = new File(System.getProperty(CACHE_DIR_PROPERTY, Shards.file("excel-cache").getPath()));
+    private static final int RESET_EVERY = 1000;
 
     public static Object[][] readExcelData(String fileName) {
-        try {
-            logCommand("Reading data from file", fileName);
-            InputStream file = new DataInputStream(new FileInputStream(fileName));
-            Workbook workbook = new XSSFWorkbook(file);
-            Sheet sheet = workbook.getSheetAt(0); // read the first sheet
-
-            List<Object[]> records = new ArrayList<>();
-            int rowNum = sheet.getFirstRowNum() + 1; // Skip the header row
-            int totalRows = findLastNonBlankRow(sheet);
-
-            for (int i = rowNum; i <= totalRows; i++) {
-                Row row = sheet.getRow(i);
-                List<Object> columns = new ArrayList<>();
-                
-                Cell cell = row.getCell(0);
-                columns.add(getCellValue(cell));
-                
-                records.add(columns.toArray());
-            }
+        List<Object[]> records = new ArrayList<>();
+        streamExcelData(fileName, 1).forEachRemaining(records::add);
+        return records.toArray(new Object[0][]);
+    }
 
-            workbook.close();
-            logCommand("Here is the data", records.toString());
-            return records.toArray(new Object[0][]);
+    // Lazily yields the rows below the header, typed as String, Double or Boolean, one entry per column
+    public static Iterator<Object[]> streamExcelData(String fileName, int columns) {
+        logCommand("Reading data from file", fileName);
+        File source = new File(fileName);
+        if (!source.isFile()) {
+            throw new IllegalArgumentException("Excel file not found: " + fileName);
+        }
+        File cache = new File(CACHE_DIR, source.getName() + "." + columns + ".rows");
+        Iterator<Object[]> cached = openCache(cache, source, columns);
+        if (cached != null) {
+            logCommand("Excel Cache", "Using parsed rows from " + cache.getPath());
+            return cached;
+        }
+        return new CachingIterator(new ExcelRowIterator(source, columns, true), cache, source, columns);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    private static Iterator<Object[]> openCache(File cache, File source, int columns) {
+        if (!cache.isFile()) {
+            return null;
+        }
+        ObjectInputStream in = null;
+        try {
+            in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(cache)));
+            boolean valid = source.getAbsolutePath().equals(in.readUTF())
+                && source.lastModified() == in.readLong()
+                && source.length() == in.readLong()
+                && columns == in.readInt();
+            if (!valid) {
+                in.close();
+                return null;
+            }
+            return new CachedIterator(in, cache, source, columns);
+        } catch (IOException e) {
+            closeQuietly(in);
             return null;
         }
     }
 
-    public static int findLastNonBlankRow(Sheet sheet) {
-        int lastNonBlankRowNum = -1;
-        if (sheet != null) {
-            for (int i = sheet.getFirstRowNum(); i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row != null && !isRowBlank(row)) {
-                    lastNonBlankRowNum = i;
-                }
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
             }
+        } catch (Exception ignored) {
         }
-        return lastNonBlankRowNum;
     }
 
-    public static int findLastNonBlankColumn(Row row) {
-        int lastNonBlankColumnNum = -1;
-        if (row != null) {
-            for (int j = row.getFirstCellNum(); j < row.getLastCellNum(); j++) {
-                Cell cell = row.getCell(j, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-                if (cell != null && cell.getCellType() != CellType.BLANK) {
-                    lastNonBlankColumnNum = j;
-                }
+    // Replays rows from a cache file, a null object marks the end of the stream. A cache that turns out to be
+    // truncated or corrupt partway through is deleted and the remaining rows come from re-parsing the sheet
+    private static final class CachedIterator implements Iterator<Object[]> {
+        private final ObjectInputStream in;
+        private final File cache;
+        private final File source;
+        private final int columns;
+        private Iterator<Object[]> fallback;
+        private int returned;
+        private Object[] next;
+
+        CachedIterator(ObjectInputStream in, File cache, File source, int columns) {
+            this.in = in;
+            this.cache = cache;
+            this.source = source;
+            this.columns = columns;
+            advance();
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public synchronized Object[] next() {
+            if (next == null) {
+                throw new NoSuchElementException();
             }
+            Object[] row = next;
+            returned++;
+            advance();
+            return row;
         }
-        return lastNonBlankColumnNum;
-    }
 
-    private static boolean isRowBlank(Row row) {
-        for (int cellNum = row.getFirstCellNum(); cellNum < row.getLastCellNum(); cellNum++) {
-            Cell cell = row.getCell(cellNum, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                return false;
+        private void advance() {
+            if (fallback != null) {
+                next = fallback.hasNext() ? fallback.next() : null;
+                return;
+            }
+            try {
+                next = (Object[]) in.readObject();
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                closeQuietly(in);
+                reparse(e);
+                return;
             }
+            if (next == null) {
+                closeQuietly(in);
+            }
+        }
+
+        // Skips the rows already handed out, the re-parse also writes a fresh cache for the next run
+        private void reparse(Exception cause) {
+            logCommand("Excel Cache", "Corrupt cache " + cache.getPath() + " (" + cause + "), re-parsing " + source.getName());
+            cache.delete();
+            fallback = new CachingIterator(new ExcelRowIterator(source, columns, true), cache, source, columns);
+            for (int i = 0; i < returned && fallback.hasNext(); i++) {
+                fallback.next();
+            }
+            next = fallback.hasNext() ? fallback.next() : null;
         }
-        return true;
     }
-    
-    private static Object getCellValue(Cell cell) {
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                return cell.getNumericCellValue();
-            case BOOLEAN:
-                return cell.getBooleanCellValue();
-            default:
-                return null;
+
+    // Passes parsed rows through while writing them to a temp file that replaces the cache once fully read
+    private static final class CachingIterator implements Iterator<Object[]> {
+        private final ExcelRowIterator rows;
+        private final File cache;
+        private File temp;
+        private ObjectOutputStream out;
+        private int written;
+
+        CachingIterator(ExcelRowIterator rows, File cache, File source, int columns) {
+            this.rows = rows;
+            this.cache = cache;
+            try {
+                CACHE_DIR.mkdirs();
+                temp = File.createTempFile(cache.getName(), ".tmp", CACHE_DIR);
+                out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+                out.writeUTF(source.getAbsolutePath());
+                out.writeLong(source.lastModified());
+                out.writeLong(source.length());
+                out.writeInt(columns);
+            } catch (IOException e) {
+                abandon();
+            }
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            boolean more = rows.hasNext();
+            if (!more) {
+                commit();
+            }
+            return more;
+        }
+
+        @Override
+        public synchronized Object[] next() {
+            Object[] row = rows.next();
+            if (out != null) {
+                try {
+                    out.writeObject(row);
+                    // Keeps ObjectOutputStream's back-reference table from growing with the sheet
+                    if (++written % RESET_EVERY == 0) {
+                        out.reset();
+                    }
+                } catch (IOException e) {
+                    abandon();
+                }
+            }
+            return row;
+        }
+
+        private void commit() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.writeObject(null);
+                out.close();
+                out = null;
+                Files.move(temp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                abandon();
+                logCommand("Excel Cache", "Unable to write " + cache + ": " + e.getMessage());
+            }
+        }
+
+        private void abandon() {
+            closeQuietly(out);
+            out = null;
+            if (temp != null) {
+                temp.delete();
+            }
         }
     }
 }
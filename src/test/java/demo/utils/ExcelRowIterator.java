@@ -0,0 +1,176 @@
+package demo.utils;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Pulls typed rows from the first sheet of an .xlsx one at a time, memory stays flat regardless of row count
+public class ExcelRowIterator implements Iterator<Object[]>, AutoCloseable {
+    private static final XMLInputFactory XML = XMLInputFactory.newInstance();
+
+    private final OPCPackage pkg;
+    private final ReadOnlySharedStringsTable strings;
+    private final InputStream sheet;
+    private final XMLStreamReader xml;
+    private final int columns;
+    private Object[] next;
+    private boolean closed;
+
+    public ExcelRowIterator(File file, int columns, boolean skipHeader) {
+        if (columns < 1) {
+            throw new IllegalArgumentException("At least one column must be read.");
+        }
+        this.columns = columns;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(pkg);
+            strings = new ReadOnlySharedStringsTable(pkg, false);
+            sheet = reader.getSheetsData().next();
+            xml = XML.createXMLStreamReader(sheet);
+            if (skipHeader) {
+                readRow();
+            }
+            next = readRow();
+        } catch (Exception e) {
+            close();
+            throw new IllegalStateException("Unable to read excel file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public synchronized Object[] next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Object[] row = next;
+        try {
+            next = readRow();
+        } catch (XMLStreamException e) {
+            close();
+            throw new IllegalStateException("Malformed sheet data: " + e.getMessage(), e);
+        }
+        if (next == null) {
+            close();
+        }
+        return row;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (xml != null) {
+                xml.close();
+            }
+            if (sheet != null) {
+                sheet.close();
+            }
+            if (pkg != null) {
+                pkg.revert();
+            }
+        } catch (XMLStreamException | IOException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+
+    // Advances to the next non-blank <row>, returns null at the end of <sheetData>
+    private Object[] readRow() throws XMLStreamException {
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                Object[] row = new Object[columns];
+                boolean blank = true;
+                int implicitColumn = 0;
+                while (xml.hasNext()) {
+                    event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+                        String ref = xml.getAttributeValue(null, "r");
+                        int column = ref != null ? columnIndex(ref) : implicitColumn;
+                        implicitColumn = column + 1;
+                        Object value = readCell(xml.getAttributeValue(null, "t"));
+                        if (column < columns && value != null) {
+                            row[column] = value;
+                            blank = false;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                        break;
+                    }
+                }
+                if (!blank) {
+                    return row;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Reads the current <c> element up to its end tag and converts it by cell type
+    private Object readCell(String type) throws XMLStreamException {
+        StringBuilder text = null;
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = xml.getLocalName();
+                if ("v".equals(name) || "t".equals(name)) {
+                    if (text == null) {
+                        text = new StringBuilder();
+                    }
+                    text.append(xml.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) {
+                break;
+            }
+        }
+        if (text == null || text.length() == 0) {
+            return null;
+        }
+        String raw = text.toString();
+        if (type == null || "n".equals(type)) {
+            return Double.parseDouble(raw);
+        }
+        switch (type) {
+            case "s":
+                return strings.getItemAt(Integer.parseInt(raw)).getString();
+            case "b":
+                return "1".equals(raw);
+            case "e":
+                return null;
+            default:
+                return raw;
+        }
+    }
+
+    private static int columnIndex(String ref) {
+        int index = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            index = index * 26 + (c - 'A' + 1);
+        }
+        return index - 1;
+    }
+}
@@ -0,0 +1,169 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import org.testng.TestListenerAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+// Screenshot, section outerHTML and recent console entries for a timed-out wait or a failed test. The test thread
+// only fetches the raw data, decoding, compression and disk writes run on a small executor with a bounded queue
+public class FailureArtifacts extends TestListenerAdapter {
+    public static final String ENABLED_PROPERTY = "artifacts.enabled";
+    public static final String QUEUE_PROPERTY = "artifacts.queue";
+    public static final String THREADS_PROPERTY = "artifacts.threads";
+    public static final String CONSOLE_LINES_PROPERTY = "artifacts.consoleLines";
+
+    private static final String SECTION_SCRIPT =
+        "const el = arguments[0] ? document.evaluate(arguments[0], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue : null;"
+        + "return (el || document.documentElement).outerHTML;";
+
+    private static final int THREADS = Math.max(1, Integer.getInteger(THREADS_PROPERTY, 1));
+    private static final ArrayBlockingQueue<Runnable> QUEUE =
+        new ArrayBlockingQueue<>(Math.max(1, Integer.getInteger(QUEUE_PROPERTY, 8)));
+    private static final ThreadPoolExecutor WRITER = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS, QUEUE, task -> {
+        Thread thread = new Thread(task, "failure-artifacts");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }, new ThreadPoolExecutor.AbortPolicy());
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    static {
+        WRITER.allowCoreThreadTimeOut(true);
+    }
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    // Captures artifacts for the page the driver is on, scoped to the element at sectionXPath when given
+    public static void capture(WebDriver driver, String reason, String sectionXPath) {
+        if (!enabled() || driver == null) {
+            return;
+        }
+        // Back-pressure: with the writer queue full the capture is skipped before any round trip is spent on it,
+        // so a burst of failures across workers never waits on the disk
+        if (QUEUE.remainingCapacity() == 0) {
+            DROPPED.incrementAndGet();
+            logCommand("Failure Artifacts", "Writer busy, skipped capture for " + reason);
+            return;
+        }
+        try {
+            StepTimer.run("failureArtifacts", () -> {
+                ITestResult result = Reporter.getCurrentTestResult();
+                String test = result == null ? "suite" : result.getName();
+                String screenshot = driver instanceof TakesScreenshot ? ((TakesScreenshot) driver).getScreenshotAs(OutputType.BASE64) : null;
+                String html = (String) ((JavascriptExecutor) driver).executeScript(SECTION_SCRIPT, sectionXPath);
+                List<LogEntry> console = recentConsole(driver);
+                String url = driver.getCurrentUrl();
+                File dir = Shards.file(String.format("reports/failures/%03d-%s-%s", SEQUENCE.incrementAndGet(), test, slug(reason)));
+                WRITER.execute(() -> write(dir, reason, url, sectionXPath, screenshot, html, console));
+                logCommand("Failure Artifacts", reason + " -> " + dir.getPath());
+                Reporter.log("Failure artifacts: " + dir.getPath());
+            });
+        } catch (RejectedExecutionException e) {
+            DROPPED.incrementAndGet();
+            logCommand("Failure Artifacts", "Writer busy, dropped capture for " + reason);
+        } catch (WebDriverException e) {
+            logCommand("Failure Artifacts", "Unable to capture " + reason + ": " + e.getMessage());
+        }
+    }
+
+    // Waits a bounded time for queued writes, called at the end of each <test>. The executor stays usable because
+    // a reused driver pool keeps running tests after this
+    public static void drain() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        try {
+            while ((!QUEUE.isEmpty() || WRITER.getActiveCount() > 0) && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!QUEUE.isEmpty() || WRITER.getActiveCount() > 0) {
+            logCommand("Failure Artifacts", QUEUE.size() + " captures still queued after 30 s");
+        }
+        if (DROPPED.get() > 0) {
+            logCommand("Failure Artifacts", DROPPED.get() + " captures skipped while the writer was busy");
+        }
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        DriverPool.Session session;
+        try {
+            session = DriverPool.get().peek();
+        } catch (IllegalStateException e) {
+            return;
+        }
+        if (session != null) {
+            Throwable cause = result.getThrowable();
+            capture(session.driver, result.getName() + " failed" + (cause == null ? "" : ": " + cause.getClass().getSimpleName()), null);
+        }
+    }
+
+    private static List<LogEntry> recentConsole(WebDriver driver) {
+        List<LogEntry> entries = new ArrayList<>();
+        try {
+            driver.manage().logs().get(LogType.BROWSER).forEach(entries::add);
+        } catch (WebDriverException ignored) {
+        }
+        int keep = Integer.getInteger(CONSOLE_LINES_PROPERTY, 50);
+        return entries.size() > keep ? entries.subList(entries.size() - keep, entries.size()) : entries;
+    }
+
+    private static void write(File dir, String reason, String url, String sectionXPath, String screenshot, String html,
+                              List<LogEntry> console) {
+        try {
+            Files.createDirectories(dir.toPath());
+            if (screenshot != null) {
+                Files.write(new File(dir, "screenshot.png").toPath(), Base64.getMimeDecoder().decode(screenshot));
+            }
+            if (html != null) {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(new File(dir, "section.html.gz").toPath()))) {
+                    out.write(html.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            try (PrintWriter out = new PrintWriter(new File(dir, "console.log"), StandardCharsets.UTF_8)) {
+                console.forEach(entry -> out.println(entry.getTimestamp() + " " + entry.getLevel() + " " + entry.getMessage()));
+            }
+            try (PrintWriter out = new PrintWriter(new File(dir, "failure.txt"), StandardCharsets.UTF_8)) {
+                out.println("reason: " + reason);
+                out.println("url: " + url);
+                out.println("section: " + (sectionXPath == null ? "(page)" : sectionXPath));
+            }
+        } catch (IOException e) {
+            logCommand("Failure Artifacts", "Unable to write " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static String slug(String reason) {
+        String slug = reason.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("^-|-$", "");
+        return slug.length() > 40 ? slug.substring(0, 40) : slug;
+    }
+}
@@ -8,6 +8,7 @@ import org.openqa.selenium.WebElement;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -15,76 +16,187 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Helpers {
-    private static final ThreadLocal<WebDriver> ACTIVE_DRIVER = new ThreadLocal<>();
+    private static final ThreadLocal<LogSink> ACTIVE_SINK = new ThreadLocal<>();
+
+    // Longest single scroll script, the page keeps scrolling across calls until the caller's limit
+    private static final long SCROLL_CHUNK_MILLIS = 5000;
+
+    // Scrolls a viewport at a time until the predicate holds, the step budget runs out or the chunk ends.
+    // The predicate is called with 'this' set to {steps, stableFor, height, scrollY}, stableFor being the
+    // milliseconds since the page height last changed, and may use arguments[i] for the supplied args
+    private static final String SCROLL_UNTIL_TEMPLATE =
+        "const done = arguments[arguments.length - 1], maxSteps = arguments[0], limit = arguments[1];"
+        + "const state = arguments[2], args = arguments[3];"
+        + "const predicate = function() { {predicate} };"
+        + "const start = performance.now();"
+        + "let lastHeight = document.documentElement.scrollHeight, changedAt = start - state.stableFor;"
+        + "const context = () => ({steps: state.steps, stableFor: performance.now() - changedAt,"
+        + "  height: document.documentElement.scrollHeight, scrollY: window.scrollY});"
+        + "const test = () => { try { const r = predicate.apply(context(), args);"
+        + "  return r === null || r === undefined || r === false ? null : r; } catch (e) { return null; } };"
+        + "const finish = (ok, value) => { const c = context();"
+        + "  done({ok: ok, value: value === undefined ? null : value, steps: c.steps, stableFor: Math.round(c.stableFor),"
+        + "    height: c.height, scrollY: Math.round(c.scrollY)}); };"
+        + "const pause = next => {"
+        + "  let timer;"
+        + "  const mo = new MutationObserver(() => { mo.disconnect(); clearTimeout(timer); setTimeout(next, 50); });"
+        + "  mo.observe(document, {childList: true, subtree: true});"
+        + "  timer = setTimeout(() => { mo.disconnect(); next(); }, 250);"
+        + "};"
+        + "const tick = () => {"
+        + "  const height = document.documentElement.scrollHeight;"
+        + "  if (height !== lastHeight) { lastHeight = height; changedAt = performance.now(); }"
+        + "  const r = test();"
+        + "  if (r !== null) { finish(true, r); return; }"
+        + "  if (state.steps >= maxSteps || performance.now() - start >= limit) { finish(false); return; }"
+        + "  window.scrollBy(0, window.innerHeight);"
+        + "  state.steps++;"
+        + "  pause(tick);"
+        + "};"
+        + "tick();";
+
+    private static final Map<String, String> SCROLL_SCRIPTS = new ConcurrentHashMap<>();
+
     private final WebDriver driver;
     private final JavascriptExecutor js;
     public Helpers(WebDriver driver) {
         this.driver = driver;
         this.js = (JavascriptExecutor) driver;
-        ACTIVE_DRIVER.set(driver);
+    }
+
+    // Binds the driver used by logCommand to the calling thread. Only DriverPool.lease calls this, so a thread
+    // that merely launched a browser (e.g. during warm-up) never holds the sink of a browser it doesn't own
+    public static void bind(WebDriver driver) {
+        ACTIVE_SINK.set(LogSink.forDriver(driver));
+    }
+
+    public static void unbind() {
+        flushLog();
+        ACTIVE_SINK.remove();
+    }
+
+    // Writes buffered console messages to the browser, called before navigation and at test end
+    public static void flushLog() {
+        LogSink sink = ACTIVE_SINK.get();
+        if (sink != null) {
+            sink.flush();
+        }
     }
 
     public static void logCommand(String action, String value) {
         String message = action + ": " + value;
         System.out.println(message);
-        WebDriver driver = ACTIVE_DRIVER.get();
-        if (driver == null) {
-            return;
-        }
-        try {
-            ((JavascriptExecutor) driver).executeScript("console.log(arguments[0]);", message);
-        } catch (TimeoutException ignored) {
+        LogSink sink = ACTIVE_SINK.get();
+        if (sink != null) {
+            sink.add(message);
         }
     }
 
     public void scrollToElement(WebElement element) {
-        js.executeScript("arguments[0].scrollIntoView({block: 'center'});", element);
+        StepTimer.run("scrollToElement", () -> {
+            js.executeScript("arguments[0].scrollIntoView({block: 'center'});", element);
+        });
     }
 
     public void scrollToElement(By locator) {
-        WebElement element = driver.findElement(locator);
-        js.executeScript("arguments[0].scrollIntoView({block: 'center'});", element);
+        StepTimer.run("scrollToElement", () -> {
+            WebElement element = driver.findElement(locator);
+            js.executeScript("arguments[0].scrollIntoView({block: 'center'});", element);
+        });
     }
 
 
     public void scrollDown() {
-        js.executeScript("window.scrollBy(0, window.innerHeight);");
+        StepTimer.run("scrollDown", () -> {
+            js.executeScript("window.scrollBy(0, window.innerHeight);");
+        });
     }
 
     public void scrollDown(int pixels) {
-        if (pixels <= 0 || pixels > 10000) {
-            logCommand("Scroll Down", "Invalid pixel value: " + pixels);
-            scrollDown();
-        } else {
-            logCommand("Scroll Down", "Scrolling down by " + pixels + " pixels");
-            js.executeScript("window.scrollBy(0, arguments[0]);", pixels);
-        }
+        StepTimer.run("scrollDown", () -> {
+            if (pixels <= 0 || pixels > 10000) {
+                logCommand("Scroll Down", "Invalid pixel value: " + pixels);
+                scrollDown();
+            } else {
+                logCommand("Scroll Down", "Scrolling down by " + pixels + " pixels");
+                js.executeScript("window.scrollBy(0, arguments[0]);", pixels);
+            }
+        });
     }
 
     public void scrollToBottom() {
-        js.executeScript("window.scrollTo(0, document.body.scrollHeight);");   
+        StepTimer.run("scrollToBottom", () -> {
+            js.executeScript("window.scrollTo(0, document.body.scrollHeight);");   
+        });
     }
 
     public void scrollTop() {
-        js.executeScript("window.scrollBy(0, window.innerHeight);");
+        StepTimer.run("scrollTop", () -> {
+            js.executeScript("window.scrollBy(0, window.innerHeight);");
+        });
     }
 
     public void scrollTop(int pixels) {
-        if (pixels <= 0 || pixels > 10000) {
-            logCommand("Scroll Top", "Invalid pixel value: " + pixels);
-            scrollTop();
-        } else {
-            logCommand("Scroll Top", "Scrolling up by " + pixels + " pixels");
-            js.executeScript("window.scrollBy(0, -arguments[0]);", pixels);
-        }
+        StepTimer.run("scrollTop", () -> {
+            if (pixels <= 0 || pixels > 10000) {
+                logCommand("Scroll Top", "Invalid pixel value: " + pixels);
+                scrollTop();
+            } else {
+                logCommand("Scroll Top", "Scrolling up by " + pixels + " pixels");
+                js.executeScript("window.scrollBy(0, -arguments[0]);", pixels);
+            }
+        });
     }
 
     public void scrollToTop() {
-        js.executeScript("window.scrollTo(0, 0);");   
+        StepTimer.run("scrollToTop", () -> {
+            js.executeScript("window.scrollTo(0, 0);");   
+        });
+    }
+
+    // Scrolls inside the page until the JS predicate holds, returns the final {ok, value, steps, stableFor, height, scrollY}
+    public Map<String, Object> scrollUntil(String predicateBody, int maxSteps, Duration limit, Object... args) {
+        return StepTimer.time("scrollUntil", () -> {
+            String script = SCROLL_SCRIPTS.computeIfAbsent(predicateBody,
+                body -> SCROLL_UNTIL_TEMPLATE.replace("{predicate}", body));
+            long deadline = System.currentTimeMillis() + limit.toMillis();
+            Map<String, Object> state = Map.of("steps", 0, "stableFor", 0);
+            while (true) {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                Map<String, Object> result = JsonValues.map(js.executeAsyncScript(
+                    script, maxSteps, Math.min(remaining, SCROLL_CHUNK_MILLIS), state, Arrays.asList(args)));
+                long steps = ((Number) result.get("steps")).longValue();
+                boolean ok = Boolean.TRUE.equals(result.get("ok"));
+                if (ok || steps >= maxSteps || remaining <= SCROLL_CHUNK_MILLIS) {
+                    logCommand("Scroll Until", String.format("%s after %d steps", ok ? "Condition met" : "Condition not met", steps));
+                    return result;
+                }
+                state = Map.of("steps", steps, "stableFor", result.get("stableFor"));
+            }
+        });
+    }
+
+    // Scrolls until at least count elements match the CSS selector
+    public Map<String, Object> scrollUntilCount(String css, int count, int maxSteps, Duration limit) {
+        return scrollUntil("return document.querySelectorAll(arguments[0]).length >= arguments[1];", maxSteps, limit, css, count);
+    }
+
+    // Scrolls until the first element matching the CSS selector is inside the viewport
+    public Map<String, Object> scrollUntilVisible(String css, int maxSteps, Duration limit) {
+        return scrollUntil("const el = document.querySelector(arguments[0]);"
+            + "if (!el) { return false; }"
+            + "const r = el.getBoundingClientRect();"
+            + "return r.height > 0 && r.top < window.innerHeight && r.bottom > 0;", maxSteps, limit, css);
+    }
+
+    // Scrolls until the page height has not changed for the given period, i.e. no more content is loading
+    public Map<String, Object> scrollUntilStable(Duration stableFor, int maxSteps, Duration limit) {
+        return scrollUntil("return this.stableFor >= arguments[0];", maxSteps, limit, stableFor.toMillis());
     }
 }
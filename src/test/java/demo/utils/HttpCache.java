@@ -0,0 +1,263 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Records browser responses through CDP Fetch interception into a content-addressed store and serves them back
+public class HttpCache {
+    public static final String MODE_PROPERTY = "http.cache.mode";
+    public static final String DIR_PROPERTY = "http.cache.dir";
+    public static final String STRICT_PROPERTY = "http.cache.strict";
+    public static final String IGNORED_PARAMS_PROPERTY = "http.cache.ignoreParams";
+    public static final String IGNORED_FIELDS_PROPERTY = "http.cache.ignoreBodyFields";
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    private static final Json JSON = new Json();
+    private static final Map<WebDriver, HttpCache> ATTACHED = new ConcurrentHashMap<>();
+
+    private final Mode mode;
+    private final File objects;
+    private final File entries;
+    private final boolean strict;
+    private final Set<String> ignoredParams;
+    private final Set<String> ignoredFields;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+    private NetworkInterceptor interceptor;
+    private long hitsAtMark, missesAtMark;
+
+    HttpCache(Mode mode, File root, boolean strict, Set<String> ignoredParams, Set<String> ignoredFields) {
+        this.mode = mode;
+        this.objects = new File(root, "objects");
+        this.entries = new File(root, "entries");
+        this.strict = strict;
+        this.ignoredParams = ignoredParams;
+        this.ignoredFields = ignoredFields;
+        objects.mkdirs();
+        entries.mkdirs();
+    }
+
+    public static Mode configuredMode() {
+        return Mode.valueOf(System.getProperty(MODE_PROPERTY, "off").trim().toUpperCase());
+    }
+
+    // Starts intercepting the driver's traffic when a record or replay mode is configured
+    public static void attach(WebDriver driver) {
+        Mode mode = configuredMode();
+        if (mode == Mode.OFF) {
+            return;
+        }
+        File root = new File(System.getProperty(DIR_PROPERTY, "build/http-cache"));
+        // Innertube POST bodies carry tracking and session fields that differ on every load of the same query
+        HttpCache cache = new HttpCache(mode, root, Boolean.getBoolean(STRICT_PROPERTY),
+            names(System.getProperty(IGNORED_PARAMS_PROPERTY, "rn,cpn,t,_")),
+            names(System.getProperty(IGNORED_FIELDS_PROPERTY,
+                "clickTracking,clickTrackingParams,adSignalsInfo,visitorData,sessionId,consistencyTokenJars,cpn,csn")));
+        cache.interceptor = new NetworkInterceptor(driver, (Filter) next -> request -> cache.handle(request, next::execute));
+        ATTACHED.put(driver, cache);
+        logCommand("HTTP Cache", mode + " " + root.getPath());
+    }
+
+    public static void detach(WebDriver driver) {
+        HttpCache cache = ATTACHED.remove(driver);
+        if (cache != null) {
+            cache.interceptor.close();
+        }
+    }
+
+    // Starts a new per-test window for the hit-rate report
+    public static void mark(WebDriver driver) {
+        HttpCache cache = ATTACHED.get(driver);
+        if (cache != null) {
+            synchronized (cache) {
+                cache.hitsAtMark = cache.hits.get();
+                cache.missesAtMark = cache.misses.get();
+            }
+        }
+    }
+
+    public static void report(WebDriver driver, String testName) {
+        HttpCache cache = ATTACHED.get(driver);
+        if (cache == null) {
+            return;
+        }
+        long testHits, testMisses;
+        synchronized (cache) {
+            testHits = cache.hits.get() - cache.hitsAtMark;
+            testMisses = cache.misses.get() - cache.missesAtMark;
+        }
+        long total = testHits + testMisses;
+        logCommand("HTTP Cache", String.format("%s %s hits=%d misses=%d hit-rate=%.1f%% stored=%d",
+            testName, cache.mode, testHits, testMisses, total == 0 ? 0.0 : 100.0 * testHits / total, cache.stored.get()));
+    }
+
+    private static Set<String> names(String list) {
+        return Arrays.stream(list.split(",")).map(String::trim).filter(p -> !p.isEmpty()).collect(Collectors.toSet());
+    }
+
+    HttpResponse handle(HttpRequest request, Function<HttpRequest, HttpResponse> network) {
+        String key = key(request);
+        File entry = new File(entries, sha256(key.getBytes(StandardCharsets.UTF_8)) + ".json");
+        if (mode == Mode.REPLAY) {
+            HttpResponse cached = load(entry);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            misses.incrementAndGet();
+            if (strict) {
+                return new HttpResponse().setStatus(504).setContent(Contents.utf8String("Not in HTTP cache: " + key));
+            }
+            return network.apply(request);
+        }
+        misses.incrementAndGet();
+        HttpResponse response = network.apply(request);
+        try {
+            save(entry, key, response);
+        } catch (IOException | UncheckedIOException e) {
+            logCommand("HTTP Cache", "Unable to store " + key + ": " + e.getMessage());
+        }
+        return response;
+    }
+
+    // Method plus URL without query parameters that change on every load, plus a hash of the body when there is one.
+    // Search, browse and continuation requests are POSTs to /youtubei/v1/* that differ only in their JSON body
+    String key(HttpRequest request) {
+        String uri = request.getUri();
+        int query = uri.indexOf('?');
+        String key = request.getMethod() + " " + uri;
+        if (query >= 0 && !ignoredParams.isEmpty()) {
+            String kept = Arrays.stream(uri.substring(query + 1).split("&"))
+                .filter(p -> !ignoredParams.contains(p.contains("=") ? p.substring(0, p.indexOf('=')) : p))
+                .collect(Collectors.joining("&"));
+            key = request.getMethod() + " " + uri.substring(0, query) + (kept.isEmpty() ? "" : "?" + kept);
+        }
+        byte[] body = Contents.bytes(request.getContent());
+        if (body.length == 0) {
+            return key;
+        }
+        // Reading the body may use up its supplier, the browser still has to send it on a miss
+        request.setContent(Contents.bytes(body));
+        return key + " body=" + sha256(canonicalBody(body));
+    }
+
+    // JSON bodies are hashed with the volatile fields removed and keys sorted, anything else as sent
+    private byte[] canonicalBody(byte[] body) {
+        String text = new String(body, StandardCharsets.UTF_8).trim();
+        if (!text.startsWith("{") && !text.startsWith("[")) {
+            return body;
+        }
+        try {
+            return JSON.toJson(canonical(JSON.toType(text, Object.class))).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonException e) {
+            return body;
+        }
+    }
+
+    private Object canonical(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((name, field) -> {
+                if (!ignoredFields.contains(String.valueOf(name))) {
+                    sorted.put(String.valueOf(name), canonical(field));
+                }
+            });
+            return sorted;
+        }
+        if (value instanceof List) {
+            return ((List<?>) value).stream().map(this::canonical).collect(Collectors.toList());
+        }
+        return value;
+    }
+
+    private void save(File entry, String key, HttpResponse response) throws IOException {
+        byte[] body = Contents.bytes(response.getContent());
+        // Contents suppliers may be single-use, so the browser gets a fresh copy of the bytes
+        response.setContent(Contents.bytes(body));
+        String hash = sha256(body);
+        File object = new File(objects, hash.substring(0, 2) + "/" + hash);
+        if (!object.isFile()) {
+            object.getParentFile().mkdirs();
+            writeAtomically(object, body);
+        }
+        List<List<String>> headers = new ArrayList<>();
+        response.forEachHeader((name, value) -> headers.add(List.of(name, value)));
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("key", key);
+        meta.put("status", response.getStatus());
+        meta.put("headers", headers);
+        meta.put("body", hash);
+        writeAtomically(entry, JSON.toJson(meta).getBytes(StandardCharsets.UTF_8));
+        stored.incrementAndGet();
+    }
+
+    private HttpResponse load(File entry) {
+        if (!entry.isFile()) {
+            return null;
+        }
+        try {
+            Map<String, Object> meta = JSON.toType(Files.readString(entry.toPath()), Json.MAP_TYPE);
+            String hash = (String) meta.get("body");
+            File object = new File(objects, hash.substring(0, 2) + "/" + hash);
+            if (!object.isFile()) {
+                return null;
+            }
+            HttpResponse response = new HttpResponse().setStatus(((Number) meta.get("status")).intValue());
+            for (Object header : (List<?>) meta.get("headers")) {
+                List<?> pair = (List<?>) header;
+                response.addHeader(String.valueOf(pair.get(0)), String.valueOf(pair.get(1)));
+            }
+            response.setContent(Contents.bytes(Files.readAllBytes(object.toPath())));
+            return response;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void writeAtomically(File target, byte[] data) throws IOException {
+        File temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+        Files.write(temp.toPath(), data);
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package demo.utils;
+
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Record/replay of innertube POSTs without a browser: the handler is fed requests directly with a fake network
+public class HttpCacheTest {
+    private static final String SEARCH = "https://www.youtube.com/youtubei/v1/search?prettyPrint=false";
+
+    private final AtomicInteger sent = new AtomicInteger();
+    private final Function<HttpRequest, HttpResponse> network = request -> {
+        sent.incrementAndGet();
+        String body = request.contentAsString();
+        return new HttpResponse().setStatus(200).setContent(Contents.utf8String("results for " + body.replaceAll(".*\"query\":\"([^\"]*)\".*", "$1")));
+    };
+    private File root;
+
+    @BeforeClass
+    public void record() throws IOException {
+        root = Files.createTempDirectory("http-cache").toFile();
+        HttpCache recorder = cache(HttpCache.Mode.RECORD);
+        recorder.handle(search("Movies", "track-1", "visitor-1"), network);
+        recorder.handle(search("Music", "track-2", "visitor-2"), network);
+        recorder.handle(new HttpRequest(HttpMethod.GET, "https://www.youtube.com/results?search_query=Games&rn=3"), network);
+    }
+
+    @Test
+    public void differentKeywordsReplayDifferentResponses() {
+        HttpCache replay = cache(HttpCache.Mode.REPLAY);
+        int before = sent.get();
+        Assert.assertEquals(body(replay.handle(search("Movies", "track-1", "visitor-1"), network)), "results for Movies");
+        Assert.assertEquals(body(replay.handle(search("Music", "track-2", "visitor-2"), network)), "results for Music");
+        Assert.assertEquals(sent.get(), before, "Replay went to the network");
+    }
+
+    @Test
+    public void trackingFieldsDoNotChangeTheKey() {
+        HttpCache replay = cache(HttpCache.Mode.REPLAY);
+        HttpResponse response = replay.handle(search("Music", "track-9", "visitor-9"), network);
+        Assert.assertEquals(body(response), "results for Music");
+    }
+
+    @Test
+    public void unrecordedKeywordMissesInStrictReplay() {
+        HttpResponse response = cache(HttpCache.Mode.REPLAY).handle(search("News", "track-1", "visitor-1"), network);
+        Assert.assertEquals(response.getStatus(), 504);
+    }
+
+    @Test
+    public void ignoredQueryParametersDoNotChangeTheKey() {
+        HttpCache cache = cache(HttpCache.Mode.REPLAY);
+        Assert.assertEquals(
+            cache.key(new HttpRequest(HttpMethod.GET, "https://www.youtube.com/results?search_query=Games&rn=7")),
+            "GET https://www.youtube.com/results?search_query=Games");
+    }
+
+    @Test
+    public void bodyIsStillSentAfterKeying() {
+        HttpRequest request = search("Games", "track-1", "visitor-1");
+        cache(HttpCache.Mode.REPLAY).key(request);
+        Assert.assertTrue(request.contentAsString().contains("\"query\":\"Games\""));
+    }
+
+    private HttpCache cache(HttpCache.Mode mode) {
+        return new HttpCache(mode, root, true, Set.of("rn"), Set.of("clickTracking", "visitorData"));
+    }
+
+    // Shaped like the innertube search body, the tracking and visitor fields change on every page load
+    private static HttpRequest search(String query, String tracking, String visitor) {
+        String body = "{\"context\":{\"client\":{\"hl\":\"en\",\"visitorData\":\"" + visitor + "\"},"
+            + "\"clickTracking\":{\"clickTrackingParams\":\"" + tracking + "\"}},\"query\":\"" + query + "\"}";
+        HttpRequest request = new HttpRequest(HttpMethod.POST, SEARCH);
+        request.setContent(Contents.utf8String(body));
+        return request;
+    }
+
+    private static String body(HttpResponse response) {
+        return response.contentAsString();
+    }
+}
@@ -0,0 +1,53 @@
+package demo.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Checked views of the untyped maps and lists that executeScript and Json hand back
+public final class JsonValues {
+    private JsonValues() {
+    }
+
+    // A JS object as a map keyed by property name, null when the script returned nothing
+    public static Map<String, Object> map(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected an object but got " + value.getClass().getSimpleName());
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        ((Map<?, ?>) value).forEach((key, field) -> map.put(String.valueOf(key), field));
+        return map;
+    }
+
+    // A JS array of objects, empty when the script returned nothing
+    public static List<Map<String, Object>> maps(Object value) {
+        List<Map<String, Object>> maps = new ArrayList<>();
+        for (Object item : list(value)) {
+            maps.add(map(item));
+        }
+        return maps;
+    }
+
+    // A JS array of strings, other values are converted with String.valueOf
+    public static List<String> strings(Object value) {
+        List<String> strings = new ArrayList<>();
+        for (Object item : list(value)) {
+            strings.add(String.valueOf(item));
+        }
+        return strings;
+    }
+
+    public static List<?> list(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Expected an array but got " + value.getClass().getSimpleName());
+        }
+        return (List<?>) value;
+    }
+}
@@ -0,0 +1,27 @@
+package demo.utils;
+
+import org.openqa.selenium.By;
+
+// Compiled locator, carries a CSS equivalent when one exists since Chrome resolves CSS much faster than XPath
+public final class Locator {
+    public final String xpath;
+    public final String css;
+
+    public Locator(String xpath, String css) {
+        this.xpath = xpath;
+        this.css = css;
+    }
+
+    public static Locator xpath(String xpath) {
+        return new Locator(xpath, null);
+    }
+
+    public By by() {
+        return css != null ? By.cssSelector(css) : By.xpath(xpath);
+    }
+
+    @Override
+    public String toString() {
+        return css != null ? css : xpath;
+    }
+}
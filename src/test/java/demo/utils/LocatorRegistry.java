@@ -0,0 +1,59 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class LocatorRegistry {
+    // Locators that depend only on their arguments are compiled once and shared by every driver
+    private static final Map<String, Locator> COMPILED = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder[]> STATS = new ConcurrentHashMap<>();
+
+    // Locators whose resolution depends on the current page state, cleared on every navigation
+    private final Map<String, Locator> scoped = new ConcurrentHashMap<>();
+
+    public static Locator compile(String name, String argument, Supplier<Locator> compiler) {
+        String key = name + "|" + argument;
+        Locator locator = COMPILED.get(key);
+        record(name, locator != null);
+        if (locator == null) {
+            locator = COMPILED.computeIfAbsent(key, k -> compiler.get());
+        }
+        return locator;
+    }
+
+    public Locator resolve(String page, String section, String position, Supplier<Locator> compiler) {
+        String key = page + "|" + section + "|" + position;
+        Locator locator = scoped.get(key);
+        record(page, locator != null);
+        if (locator == null) {
+            locator = compiler.get();
+            scoped.put(key, locator);
+        }
+        return locator;
+    }
+
+    public void invalidate() {
+        scoped.clear();
+    }
+
+    // Returns {hits, misses} per locator family
+    public static Map<String, long[]> stats() {
+        Map<String, long[]> snapshot = new TreeMap<>();
+        STATS.forEach((name, counts) -> snapshot.put(name, new long[] {counts[0].sum(), counts[1].sum()}));
+        return snapshot;
+    }
+
+    public static void logStats() {
+        stats().forEach((name, counts) ->
+            logCommand("Locator Stats", String.format("%s hits=%d misses=%d", name, counts[0], counts[1])));
+    }
+
+    private static void record(String name, boolean hit) {
+        LongAdder[] counts = STATS.computeIfAbsent(name, k -> new LongAdder[] {new LongAdder(), new LongAdder()});
+        counts[hit ? 0 : 1].increment();
+    }
+}
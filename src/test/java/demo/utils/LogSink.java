@@ -0,0 +1,77 @@
+package demo.utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Buffers browser console messages per driver and writes them in one script call at checkpoints
+public class LogSink {
+    public static final String CAPACITY_PROPERTY = "log.sink.capacity";
+
+    private static final String BATCH_SCRIPT = "arguments[0].forEach(m => console.log(m));";
+    private static final Map<WebDriver, LogSink> SINKS = new ConcurrentHashMap<>();
+    private static final ExecutorService FLUSHER = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "log-sink-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JavascriptExecutor js;
+    private final ArrayBlockingQueue<String> pending;
+    // Batches are chained so they reach the console in the order they were logged
+    private CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+
+    private LogSink(WebDriver driver, int capacity) {
+        this.js = (JavascriptExecutor) driver;
+        this.pending = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public static LogSink forDriver(WebDriver driver) {
+        return SINKS.computeIfAbsent(driver, d -> new LogSink(d, Math.max(1, Integer.getInteger(CAPACITY_PROPERTY, 64))));
+    }
+
+    // Drops the sink of a driver that is about to quit, anything still buffered is lost with the page
+    public static void close(WebDriver driver) {
+        SINKS.remove(driver);
+    }
+
+    // A full buffer is written by a background thread, the test's thread never waits on that round trip
+    public synchronized void add(String message) {
+        if (!pending.offer(message)) {
+            send();
+            pending.offer(message);
+        }
+    }
+
+    // Writes whatever is buffered and waits until every batch so far has reached the page
+    public void flush() {
+        CompletableFuture<Void> sent;
+        synchronized (this) {
+            if (!pending.isEmpty()) {
+                send();
+            }
+            sent = inFlight;
+        }
+        sent.join();
+    }
+
+    private void send() {
+        List<String> batch = new ArrayList<>(pending.size());
+        pending.drainTo(batch);
+        inFlight = inFlight.thenRunAsync(() -> {
+            try {
+                js.executeScript(BATCH_SCRIPT, batch);
+            } catch (WebDriverException ignored) {
+            }
+        }, FLUSHER);
+    }
+}
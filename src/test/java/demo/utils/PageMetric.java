@@ -0,0 +1,6 @@
+package demo.utils;
+
+// Timing and CDP Performance.getMetrics readings for one navigation or sidebar transition, -1 when not measured
+public record PageMetric(String test, String page, String url, long transitionMs, long domContentLoadedMs, long loadMs,
+                         long jsHeapUsedBytes, long nodes, long layouts) {
+}
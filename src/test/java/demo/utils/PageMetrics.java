@@ -0,0 +1,161 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Collects Navigation Timing and CDP Performance.getMetrics after every navigation and checks them against the
+// per-page budgets in page-budgets.properties. As a TestNG listener it fails the test when a "fail" budget is exceeded
+public class PageMetrics implements IInvokedMethodListener {
+    public static final String ENABLED_PROPERTY = "perf.metrics";
+    public static final String BUDGETS_PROPERTY = "perf.budgets";
+
+    private static final String TIMING_SCRIPT =
+        "const n = performance.getEntriesByType('navigation')[0];"
+        + "const fresh = !!n && n.name === location.href;"
+        + "return {dcl: fresh ? Math.round(n.domContentLoadedEventEnd) : -1, load: fresh ? Math.round(n.loadEventEnd) : -1};";
+
+    private static final Properties BUDGETS = loadBudgets();
+    private static final Set<WebDriver> ENABLED = ConcurrentHashMap.newKeySet();
+    // Budget breaches of the test running on this thread, only those from pages in "fail" mode
+    private static final ThreadLocal<List<String>> FAILURES = ThreadLocal.withInitial(ArrayList::new);
+
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    // Reads the metrics of the page the driver is on now, logs them, attaches them to the current test and checks budgets
+    public static PageMetric capture(WebDriver driver, String page, String url, long transitionMs) {
+        if (!enabled()) {
+            return null;
+        }
+        try {
+            return StepTimer.time("pageMetrics", () -> {
+                Map<String, Object> timing = JsonValues.map(((JavascriptExecutor) driver).executeScript(TIMING_SCRIPT));
+                Map<String, Number> cdp = cdpMetrics(driver);
+                ITestResult result = Reporter.getCurrentTestResult();
+                PageMetric metric = new PageMetric(result == null ? "" : result.getName(), page, url, transitionMs,
+                    ((Number) timing.get("dcl")).longValue(), ((Number) timing.get("load")).longValue(),
+                    value(cdp, "JSHeapUsedSize"), value(cdp, "Nodes"), value(cdp, "LayoutCount"));
+                String line = String.format("%s transition=%dms dcl=%dms load=%dms heap=%.1fMB nodes=%d layouts=%d",
+                    page, metric.transitionMs(), metric.domContentLoadedMs(), metric.loadMs(),
+                    metric.jsHeapUsedBytes() / 1048576.0, metric.nodes(), metric.layouts());
+                logCommand("Page Metrics", line);
+                Reporter.log("Page metrics: " + line + " (" + url + ")");
+                ResultWriter.write(metric);
+                check(metric);
+                return metric;
+            });
+        } catch (WebDriverException e) {
+            logCommand("Page Metrics", "Unable to read metrics for " + page + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void detach(WebDriver driver) {
+        ENABLED.remove(driver);
+    }
+
+    private static Map<String, Number> cdpMetrics(WebDriver driver) {
+        Map<String, Number> metrics = new LinkedHashMap<>();
+        if (!(driver instanceof HasCdp)) {
+            return metrics;
+        }
+        HasCdp cdp = (HasCdp) driver;
+        if (ENABLED.add(driver)) {
+            cdp.executeCdpCommand("Performance.enable", Map.of());
+        }
+        Object list = cdp.executeCdpCommand("Performance.getMetrics", Map.of()).get("metrics");
+        for (Object entry : (List<?>) list) {
+            Map<?, ?> metric = (Map<?, ?>) entry;
+            metrics.put(String.valueOf(metric.get("name")), (Number) metric.get("value"));
+        }
+        return metrics;
+    }
+
+    private static long value(Map<String, Number> metrics, String name) {
+        Number value = metrics.get(name);
+        return value == null ? -1 : value.longValue();
+    }
+
+    // A budget is "<page>.<metric>=<limit>" with "default.<metric>" as fallback, heap limits are in MB
+    private static void check(PageMetric metric) {
+        Map<String, Long> measured = new LinkedHashMap<>();
+        measured.put("transition", metric.transitionMs());
+        measured.put("domContentLoaded", metric.domContentLoadedMs());
+        measured.put("load", metric.loadMs());
+        measured.put("jsHeapMb", metric.jsHeapUsedBytes() < 0 ? -1 : metric.jsHeapUsedBytes() / 1048576);
+        measured.put("nodes", metric.nodes());
+        measured.put("layouts", metric.layouts());
+        boolean fail = "fail".equalsIgnoreCase(budget(metric.page(), "mode", "warn"));
+        for (Map.Entry<String, Long> entry : measured.entrySet()) {
+            String limit = budget(metric.page(), entry.getKey(), null);
+            if (limit == null || entry.getValue() < 0 || entry.getValue() <= Long.parseLong(limit.trim())) {
+                continue;
+            }
+            String breach = String.format("%s %s=%d over budget %s", metric.page(), entry.getKey(), entry.getValue(), limit.trim());
+            logCommand(fail ? "Page Budget Failure" : "Page Budget Warning", breach);
+            Reporter.log("Page budget exceeded: " + breach);
+            if (fail) {
+                FAILURES.get().add(breach);
+            }
+        }
+    }
+
+    private static String budget(String page, String key, String fallback) {
+        return BUDGETS.getProperty(page + "." + key, BUDGETS.getProperty("default." + key, fallback));
+    }
+
+    private static Properties loadBudgets() {
+        Properties budgets = new Properties();
+        File file = new File(System.getProperty(BUDGETS_PROPERTY, "src/test/resources/page-budgets.properties"));
+        if (!file.isFile()) {
+            return budgets;
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            budgets.load(in);
+        } catch (IOException e) {
+            logCommand("Page Metrics", "Unable to read budgets from " + file + ": " + e.getMessage());
+        }
+        return budgets;
+    }
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            FAILURES.get().clear();
+        }
+    }
+
+    // A passing test that breached a "fail" budget is turned into a failure carrying every breach
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!method.isTestMethod()) {
+            return;
+        }
+        List<String> failures = FAILURES.get();
+        if (!failures.isEmpty() && testResult.getStatus() == ITestResult.SUCCESS) {
+            testResult.setStatus(ITestResult.FAILURE);
+            testResult.setThrowable(new AssertionError("Page budgets exceeded: " + String.join("; ", failures)));
+        }
+        failures.clear();
+    }
+}
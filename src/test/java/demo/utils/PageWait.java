@@ -0,0 +1,214 @@
+package demo.utils;
+
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Wait;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Wait that sleeps inside the page until the DOM or network changes instead of polling on a fixed interval
+public class PageWait implements Wait<WebDriver> {
+    // Longest single async script, kept well under chromedriver's default 30 s script timeout
+    private static final long CHUNK_MILLIS = 5000;
+
+    // Shortest time between two wakeups of the same caller, YouTube mutates the DOM almost constantly (progress bar,
+    // lazy thumbnails, counters), so changes are batched rather than costing a condition check each
+    private static final long BATCH_MILLIS = 150;
+
+    // Resolves once the page's mutation counter differs from the version the caller last saw, but no sooner than
+    // the batch interval after the previous wakeup. Every change in between is covered by the one returned version
+    private static final String AWAIT_CHANGE_SCRIPT =
+        "const done = arguments[arguments.length - 1], seen = arguments[0], limit = arguments[1], batch = arguments[2];"
+        + "let pw = window.__pageWait;"
+        + "if (!pw) {"
+        + "  pw = window.__pageWait = {version: 0, woken: 0, waiters: []};"
+        + "  const bump = () => { pw.version++; pw.waiters.splice(0).forEach(w => w()); };"
+        + "  new MutationObserver(bump).observe(document, {childList: true, subtree: true, attributes: true, characterData: true});"
+        + "  if (window.PerformanceObserver) {"
+        + "    new PerformanceObserver(bump).observe({type: 'resource', buffered: false});"
+        + "  }"
+        + "}"
+        + "let timer, finished = false;"
+        + "const finish = () => {"
+        + "  if (finished) { return; }"
+        + "  finished = true; clearTimeout(timer); pw.woken = performance.now(); done(pw.version);"
+        + "};"
+        + "const wake = () => {"
+        + "  if (finished) { return; }"
+        + "  clearTimeout(timer);"
+        + "  const wait = pw.woken + batch - performance.now();"
+        + "  if (wait > 0) { timer = setTimeout(finish, wait); } else { finish(); }"
+        + "};"
+        + "if (pw.version !== seen) { wake(); return; }"
+        + "timer = setTimeout(finish, limit);"
+        + "pw.waiters.push(wake);";
+
+    // Resolves once neither the DOM nor the resource timeline has changed for the quiet period
+    private static final String SETTLE_SCRIPT =
+        "const done = arguments[arguments.length - 1], quiet = arguments[0], limit = arguments[1];"
+        + "const start = performance.now();"
+        + "let last = start, timer;"
+        + "const observers = [];"
+        + "const finish = settled => { observers.forEach(o => o.disconnect()); clearTimeout(timer); done(settled); };"
+        + "const check = () => {"
+        + "  const now = performance.now();"
+        + "  if (now - last >= quiet && document.readyState !== 'loading') { finish(true); }"
+        + "  else if (now - start >= limit) { finish(false); }"
+        + "  else { timer = setTimeout(check, Math.max(10, quiet - (now - last))); }"
+        + "};"
+        + "const touch = () => { last = performance.now(); };"
+        + "const mo = new MutationObserver(touch);"
+        + "mo.observe(document, {childList: true, subtree: true, characterData: true});"
+        + "observers.push(mo);"
+        + "if (window.PerformanceObserver) {"
+        + "  const po = new PerformanceObserver(touch);"
+        + "  po.observe({type: 'resource', buffered: false});"
+        + "  observers.push(po);"
+        + "}"
+        + "timer = setTimeout(check, quiet);";
+
+    // Evaluates a JS predicate on every mutation and resolves with its first truthy result
+    private static final String UNTIL_SCRIPT_TEMPLATE =
+        "const done = arguments[arguments.length - 1], limit = arguments[0], args = arguments[1];"
+        + "const predicate = function() { {predicate} };"
+        + "const test = () => { try { const r = predicate.apply(null, args);"
+        + "  return r === null || r === undefined || r === false ? null : r; } catch (e) { return null; } };"
+        + "const first = test();"
+        + "if (first !== null) { done({ok: true, value: first}); return; }"
+        + "let timer;"
+        + "const mo = new MutationObserver(() => { const r = test(); if (r !== null) { finish({ok: true, value: r}); } });"
+        + "const finish = result => { mo.disconnect(); clearTimeout(timer); done(result); };"
+        + "mo.observe(document, {childList: true, subtree: true, attributes: true, characterData: true});"
+        + "timer = setTimeout(() => finish({ok: false}), limit);";
+
+    private static final Map<String, String> COMPILED = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+    private final JavascriptExecutor js;
+    private final Duration timeout;
+
+    public PageWait(WebDriver driver, Duration timeout) {
+        this.driver = driver;
+        this.js = (JavascriptExecutor) driver;
+        this.timeout = timeout;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public <T> T until(Function<? super WebDriver, T> condition) {
+        return until(condition, timeout);
+    }
+
+    public <T> T until(Function<? super WebDriver, T> condition, Duration limit) {
+        long deadline = System.currentTimeMillis() + limit.toMillis();
+        long version;
+        RuntimeException lastError = null;
+        // Read the version before checking so a change during the check still wakes the next wait
+        try {
+            version = awaitChange(-1, 0, 0);
+        } catch (JavascriptException | UnsupportedCommandException e) {
+            return fallback(condition, deadline);
+        }
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    return value;
+                }
+            } catch (StaleElementReferenceException | NoSuchElementException e) {
+                lastError = e;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new TimeoutException(String.format(
+                    "Expected condition failed: %s (waited %d ms)", condition, limit.toMillis()), lastError);
+            }
+            try {
+                version = awaitChange(version, Math.min(remaining, CHUNK_MILLIS), BATCH_MILLIS);
+            } catch (JavascriptException | UnsupportedCommandException e) {
+                return fallback(condition, deadline);
+            }
+        }
+    }
+
+    // Runs the whole wait inside the page, the predicate body may use arguments[i] for the supplied args
+    public Object untilScript(String predicateBody, Object... args) {
+        String script = COMPILED.computeIfAbsent(predicateBody, body -> UNTIL_SCRIPT_TEMPLATE.replace("{predicate}", body));
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        JavascriptException lastError = null;
+        while (true) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new TimeoutException("Page condition not met within " + timeout.toMillis() + " ms: " + predicateBody, lastError);
+            }
+            Map<String, Object> result;
+            try {
+                result = JsonValues.map(js.executeAsyncScript(script, Math.min(remaining, CHUNK_MILLIS), Arrays.asList(args)));
+            } catch (JavascriptException e) {
+                // The page navigated mid-wait, the script is started again on the new document.
+                // Any other script error is a broken predicate and would fail the same way on every retry
+                if (!navigated(e)) {
+                    throw e;
+                }
+                lastError = e;
+                continue;
+            }
+            if (result != null && Boolean.TRUE.equals(result.get("ok"))) {
+                return result.get("value");
+            }
+        }
+    }
+
+    // The errors chromedriver reports when the document running an async script goes away
+    private static boolean navigated(JavascriptException e) {
+        String message = String.valueOf(e.getRawMessage()).toLowerCase();
+        return message.contains("document unloaded") || message.contains("execution context")
+            || message.contains("cannot find context");
+    }
+
+    // Blocks until the DOM and network have been quiet for the given period, returns false if the page never settled
+    public boolean settle(Duration quiet, Duration limit) {
+        long deadline = System.currentTimeMillis() + limit.toMillis();
+        try {
+            while (true) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                Object settled = js.executeAsyncScript(SETTLE_SCRIPT, quiet.toMillis(), Math.min(remaining, CHUNK_MILLIS));
+                if (Boolean.TRUE.equals(settled)) {
+                    return true;
+                }
+            }
+        } catch (ScriptTimeoutException | JavascriptException e) {
+            return false;
+        }
+    }
+
+    private long awaitChange(long seen, long limitMillis, long batchMillis) {
+        Object version = js.executeAsyncScript(AWAIT_CHANGE_SCRIPT, seen, limitMillis, batchMillis);
+        return version instanceof Number ? ((Number) version).longValue() : -1;
+    }
+
+    // Pages that reject async scripts still get a conventional polling wait for whatever time is left
+    private <T> T fallback(Function<? super WebDriver, T> condition, long deadline) {
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        return new WebDriverWait(driver, Duration.ofMillis(remaining))
+            .ignoring(StaleElementReferenceException.class)
+            .until(condition);
+    }
+}
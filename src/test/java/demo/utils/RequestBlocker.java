@@ -0,0 +1,164 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Applies a BlockingProfile through CDP Network.setBlockedURLs and reports what each navigation saved
+public class RequestBlocker {
+    private static final Json JSON = new Json();
+    private static final Map<WebDriver, RequestBlocker> BLOCKERS = new ConcurrentHashMap<>();
+    // Navigations recorded with the NONE profile, used as the baseline for the savings report
+    private static final File BASELINE = new File("build/reports/blocking-baseline.json");
+    private static final Map<String, Map<String, Object>> BASELINES = loadBaselines();
+
+    private final DevTools devTools;
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private BlockingProfile profile;
+    private long blockedAtStart, requestsAtStart, bytesAtStart;
+
+    private RequestBlocker(DevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    // Launch-time part of a profile, these preferences can't be changed once the browser is running
+    public static ChromeOptions configure(ChromeOptions options, BlockingProfile profile) {
+        if (profile.blocks(BlockingProfile.Category.MEDIA)) {
+            options.addArguments("--autoplay-policy=user-gesture-required");
+        }
+        // Thumbnails are left to the URL patterns alone, the images content setting would block every image on every host
+        return options;
+    }
+
+    // Switches the driver to the profile, pooled browsers are re-pointed whenever a test class with another profile leases them
+    public static void apply(WebDriver driver, BlockingProfile profile) {
+        if (!(driver instanceof HasDevTools)) {
+            return;
+        }
+        try {
+            RequestBlocker blocker = BLOCKERS.computeIfAbsent(driver, d -> attach(((HasDevTools) d).getDevTools()));
+            synchronized (blocker) {
+                if (blocker.profile == profile) {
+                    return;
+                }
+                Map<String, Object> params = new HashMap<>();
+                params.put("urls", profile.urlPatterns());
+                blocker.devTools.send(new Command<>("Network.setBlockedURLs", params));
+                blocker.profile = profile;
+            }
+            logCommand("Blocking Profile", profile + " " + profile.urlPatterns().size() + " patterns");
+        } catch (WebDriverException e) {
+            logCommand("Blocking Profile", "DevTools unavailable, running unfiltered: " + e.getMessage());
+        }
+    }
+
+    public static void detach(WebDriver driver) {
+        BLOCKERS.remove(driver);
+    }
+
+    private static RequestBlocker attach(DevTools devTools) {
+        devTools.createSessionIfThereIsNotOne();
+        RequestBlocker blocker = new RequestBlocker(devTools);
+        devTools.send(new Command<>("Network.enable", new HashMap<>()));
+        devTools.addListener(new Event<Map<String, Object>>("Network.loadingFailed", in -> in.read(Json.MAP_TYPE)), event -> {
+            if (event.get("blockedReason") != null) {
+                blocker.blocked.incrementAndGet();
+            }
+        });
+        devTools.addListener(new Event<Map<String, Object>>("Network.loadingFinished", in -> in.read(Json.MAP_TYPE)), event -> {
+            blocker.requests.incrementAndGet();
+            Object length = event.get("encodedDataLength");
+            if (length instanceof Number) {
+                blocker.bytes.addAndGet(((Number) length).longValue());
+            }
+        });
+        return blocker;
+    }
+
+    public static void beginNavigation(WebDriver driver) {
+        RequestBlocker blocker = BLOCKERS.get(driver);
+        if (blocker != null) {
+            synchronized (blocker) {
+                blocker.blockedAtStart = blocker.blocked.get();
+                blocker.requestsAtStart = blocker.requests.get();
+                blocker.bytesAtStart = blocker.bytes.get();
+            }
+        }
+    }
+
+    // Logs blocked requests, transferred bytes and load time for the navigation, compared with the NONE baseline
+    public static void endNavigation(WebDriver driver, String url) {
+        RequestBlocker blocker = BLOCKERS.get(driver);
+        if (blocker == null) {
+            return;
+        }
+        long loadMillis = ((Number) ((JavascriptExecutor) driver).executeScript(
+            "const n = performance.getEntriesByType('navigation')[0];"
+            + "return n ? Math.round(n.loadEventEnd || n.duration) : 0;")).longValue();
+        long blockedCount, requestCount, byteCount;
+        BlockingProfile profile;
+        synchronized (blocker) {
+            blockedCount = blocker.blocked.get() - blocker.blockedAtStart;
+            requestCount = blocker.requests.get() - blocker.requestsAtStart;
+            byteCount = blocker.bytes.get() - blocker.bytesAtStart;
+            profile = blocker.profile;
+        }
+        String line = String.format("%s %s blocked=%d requests=%d bytes=%d load=%dms",
+            profile, url, blockedCount, requestCount, byteCount, loadMillis);
+        Map<String, Object> baseline = BASELINES.get(url);
+        if (profile == BlockingProfile.NONE) {
+            Map<String, Object> sample = new HashMap<>();
+            sample.put("requests", requestCount);
+            sample.put("bytes", byteCount);
+            sample.put("load", loadMillis);
+            BASELINES.put(url, sample);
+            saveBaselines();
+        } else if (baseline != null) {
+            line += String.format(" | avoided requests=%d bytes=%d load %+dms vs NONE",
+                ((Number) baseline.get("requests")).longValue() - requestCount,
+                ((Number) baseline.get("bytes")).longValue() - byteCount,
+                loadMillis - ((Number) baseline.get("load")).longValue());
+        }
+        logCommand("Network Savings", line);
+    }
+
+    private static Map<String, Map<String, Object>> loadBaselines() {
+        Map<String, Map<String, Object>> baselines = new ConcurrentHashMap<>();
+        if (BASELINE.isFile()) {
+            try {
+                Map<String, Object> saved = JSON.toType(Files.readString(BASELINE.toPath()), Json.MAP_TYPE);
+                saved.forEach((url, sample) -> baselines.put(url, JsonValues.map(sample)));
+            } catch (IOException | RuntimeException e) {
+                logCommand("Network Savings", "Ignoring unreadable baseline: " + e.getMessage());
+            }
+        }
+        return baselines;
+    }
+
+    private static synchronized void saveBaselines() {
+        try {
+            BASELINE.getParentFile().mkdirs();
+            Files.write(BASELINE.toPath(), JSON.toJson(BASELINES).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logCommand("Network Savings", "Unable to write baseline: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Appends result records to <type>.jsonl and <type>.csv as they are produced, one line per record
+public final class ResultWriter {
+    public static final String DIR_PROPERTY = "results.dir";
+    public static final String FORMATS_PROPERTY = "results.formats";
+
+    private static final Json JSON = new Json();
+    private static final Map<Class<?>, Sink> SINKS = new ConcurrentHashMap<>();
+    // Types whose files this JVM has already started, a later <test> reopens them for appending
+    private static final Set<Class<?>> STARTED = ConcurrentHashMap.newKeySet();
+    private static final List<String> FORMATS = Arrays.asList(
+        System.getProperty(FORMATS_PROPERTY, "jsonl,csv").toLowerCase().split("\\s*,\\s*"));
+
+    private ResultWriter() {
+    }
+
+    public static void write(Record result) {
+        if (result == null || !FORMATS.contains("jsonl") && !FORMATS.contains("csv")) {
+            return;
+        }
+        Sink sink = SINKS.computeIfAbsent(result.getClass(), Sink::new);
+        try {
+            sink.write(result);
+        } catch (IOException e) {
+            logCommand("Result Writer", "Unable to write " + result + ": " + e.getMessage());
+        }
+    }
+
+    // Closes every open file, called at the end of each <test>. The next write appends to the same files
+    public static void closeAll() {
+        SINKS.values().forEach(Sink::close);
+        SINKS.clear();
+    }
+
+    private static final class Sink {
+        private final RecordComponent[] components;
+        private BufferedWriter jsonl, csv;
+
+        Sink(Class<?> type) {
+            this.components = type.getRecordComponents();
+            File dir = new File(System.getProperty(DIR_PROPERTY, Shards.file("reports/results").getPath()));
+            dir.mkdirs();
+            // Only the first open in this JVM starts the files afresh, with -Ddriver.pool.reuse=true several
+            // <test> blocks share one JVM and each must add to the results of the ones before it
+            boolean first = STARTED.add(type);
+            OpenOption[] mode = first
+                ? new OpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE}
+                : new OpenOption[] {StandardOpenOption.CREATE, StandardOpenOption.APPEND};
+            try {
+                if (FORMATS.contains("jsonl")) {
+                    jsonl = Files.newBufferedWriter(new File(dir, type.getSimpleName() + ".jsonl").toPath(), StandardCharsets.UTF_8, mode);
+                }
+                if (FORMATS.contains("csv")) {
+                    csv = Files.newBufferedWriter(new File(dir, type.getSimpleName() + ".csv").toPath(), StandardCharsets.UTF_8, mode);
+                }
+                if (csv != null && first) {
+                    StringBuilder header = new StringBuilder();
+                    for (RecordComponent component : components) {
+                        header.append(header.length() == 0 ? "" : ",").append(component.getName());
+                    }
+                    csv.write(header.append('\n').toString());
+                }
+            } catch (IOException e) {
+                logCommand("Result Writer", "Unable to open results for " + type.getSimpleName() + ": " + e.getMessage());
+            }
+        }
+
+        synchronized void write(Record result) throws IOException {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (RecordComponent component : components) {
+                try {
+                    row.put(component.getName(), component.getAccessor().invoke(result));
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            // Each line is flushed so a run that dies midway still leaves every finished record on disk
+            if (jsonl != null) {
+                StringBuilder line = new StringBuilder();
+                try (JsonOutput out = JSON.newOutput(line)) {
+                    out.setPrettyPrint(false).write(row);
+                }
+                jsonl.write(line.append('\n').toString());
+                jsonl.flush();
+            }
+            if (csv != null) {
+                StringBuilder line = new StringBuilder();
+                for (Object value : row.values()) {
+                    line.append(line.length() == 0 ? "" : ",").append(csvField(value));
+                }
+                csv.write(line.append('\n').toString());
+                csv.flush();
+            }
+        }
+
+        synchronized void close() {
+            for (BufferedWriter writer : new BufferedWriter[] {jsonl, csv}) {
+                try {
+                    if (writer != null) {
+                        writer.close();
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private static String csvField(Object value) {
+            String text = value == null ? "" : value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                return text;
+            }
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+// Folds build/shards/<n> back into the single-run layout run_assesment.sh and assess.py read:
+// testng-results.xml, chromedriver.log, filtered_logs.json and the result files, plus the duration history
+public final class ShardMerger {
+    private static final String[] COUNTERS = {"total", "passed", "failed", "skipped", "ignored"};
+
+    private ShardMerger() {
+    }
+
+    // Usage: ShardMerger <shard count>, run from the project directory after every shard has exited
+    public static void main(String[] args) throws Exception {
+        int count = Integer.parseInt(args[0]);
+        List<File> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(new File("build/shards/" + i));
+        }
+        File build = new File("build");
+
+        Document results = mergeResults(shards, new File(build, "reports/tests/test/testng-results.xml"));
+        concat(shards, "chromedriver.log", new File(build, "chromedriver.log"), false);
+        DriverLogFilter.rebuild(new File(build, "chromedriver.log"), new File(build, "filtered_logs.json"),
+            new File("assesment/INSTRUCTIONS.json"));
+        TreeSet<String> resultFiles = new TreeSet<>();
+        for (File shard : shards) {
+            String[] names = new File(shard, "reports/results").list();
+            if (names != null) {
+                resultFiles.addAll(List.of(names));
+            }
+        }
+        for (String name : resultFiles) {
+            concat(shards, "reports/results/" + name, new File(build, "reports/results/" + name), name.endsWith(".csv"));
+        }
+        if (results != null) {
+            writeHistory(results, Shards.history());
+            Element root = results.getDocumentElement();
+            System.out.println("\nTEST RESULT: " + (parse(root.getAttribute("failed")) == 0 ? "SUCCESS" : "FAILURE"));
+            System.out.println(String.format("TEST SUMMARY: RAN %s TESTS, %s SUCCEEDED, %s FAILED, %s SKIPPED (%d shards)",
+                root.getAttribute("total"), root.getAttribute("passed"), root.getAttribute("failed"),
+                root.getAttribute("skipped"), count));
+        }
+    }
+
+    // The first shard's report is the base, the other shards' <test> blocks are moved into its matching suite
+    private static Document mergeResults(List<File> shards, File target) throws Exception {
+        Document merged = null;
+        for (File shard : shards) {
+            File report = new File(shard, "reports/tests/test/testng-results.xml");
+            if (!report.isFile()) {
+                logCommand("Shard Merge", "No TestNG results in " + shard);
+                continue;
+            }
+            Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(report);
+            if (merged == null) {
+                merged = doc;
+                continue;
+            }
+            Element root = merged.getDocumentElement();
+            for (String counter : COUNTERS) {
+                if (root.hasAttribute(counter)) {
+                    root.setAttribute(counter, String.valueOf(parse(root.getAttribute(counter))
+                        + parse(doc.getDocumentElement().getAttribute(counter))));
+                }
+            }
+            for (Element suite : children(doc.getDocumentElement(), "suite")) {
+                Element into = find(children(root, "suite"), suite.getAttribute("name"));
+                if (into == null) {
+                    root.appendChild(merged.importNode(suite, true));
+                    continue;
+                }
+                into.setAttribute("duration-ms", String.valueOf(Math.max(parse(into.getAttribute("duration-ms")),
+                    parse(suite.getAttribute("duration-ms")))));
+                for (Element test : children(suite, "test")) {
+                    into.appendChild(merged.importNode(test, true));
+                }
+            }
+        }
+        if (merged == null) {
+            return null;
+        }
+        target.getParentFile().mkdirs();
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        try (OutputStream out = new FileOutputStream(target)) {
+            transformer.transform(new DOMSource(merged), new StreamResult(out));
+        }
+        logCommand("Shard Merge", "TestNG results written to " + target.getPath());
+        return merged;
+    }
+
+    // Appends each shard's file in shard order, keeping only the first header line for CSV
+    private static void concat(List<File> shards, String name, File target, boolean header) throws IOException {
+        target.getParentFile().mkdirs();
+        boolean first = true;
+        try (BufferedWriter out = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (File shard : shards) {
+                File part = new File(shard, name);
+                if (!part.isFile()) {
+                    continue;
+                }
+                List<String> lines = Files.readAllLines(part.toPath(), StandardCharsets.UTF_8);
+                for (int i = header && !first ? 1 : 0; i < lines.size(); i++) {
+                    out.write(lines.get(i));
+                    out.write('\n');
+                }
+                first = false;
+            }
+        }
+    }
+
+    // Duration of every test invocation keyed like Shards.key, read by the next sharded run to balance its plan
+    private static void writeHistory(Document results, File history) throws IOException {
+        Properties durations = new Properties();
+        NodeList methods = results.getElementsByTagName("test-method");
+        for (int i = 0; i < methods.getLength(); i++) {
+            Element method = (Element) methods.item(i);
+            // Skipped tests never reached the browser, their near-zero times would only skew the next plan
+            if ("true".equals(method.getAttribute("is-config")) || "SKIP".equals(method.getAttribute("status"))) {
+                continue;
+            }
+            List<String> params = new ArrayList<>();
+            NodeList values = method.getElementsByTagName("value");
+            for (int j = 0; j < values.getLength(); j++) {
+                params.add(values.item(j).getTextContent().trim());
+            }
+            String key = params.isEmpty() ? method.getAttribute("name") : method.getAttribute("name") + params;
+            durations.setProperty(key, String.valueOf(parse(method.getAttribute("duration-ms"))));
+        }
+        history.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(history)) {
+            durations.store(out, "Per-test durations in ms from the last sharded run");
+        }
+    }
+
+    private static List<Element> children(Element parent, String tag) {
+        List<Element> out = new ArrayList<>();
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && tag.equals(node.getNodeName())) {
+                out.add((Element) node);
+            }
+        }
+        return out;
+    }
+
+    private static Element find(List<Element> elements, String name) {
+        for (Element element : elements) {
+            if (name.equals(element.getAttribute("name"))) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static long parse(String value) {
+        return value == null || value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+}
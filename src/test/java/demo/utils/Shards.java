@@ -0,0 +1,149 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// Splits the suite's test methods and excelData rows across forked JVMs, balanced by last run's durations.
+// Every shard computes the same plan from the same inputs, so no coordination between the JVMs is needed
+public class Shards implements IMethodInterceptor {
+    public static final String INDEX_PROPERTY = "shard.index";
+    public static final String COUNT_PROPERTY = "shard.count";
+    public static final String HISTORY_PROPERTY = "shard.history";
+
+    // Used for tests that have not run before, roughly one search test on a warm browser
+    private static final long DEFAULT_MILLIS = 30000;
+
+    private static Map<String, Integer> plan;
+
+    public static int index() {
+        return Integer.getInteger(INDEX_PROPERTY, 0);
+    }
+
+    public static int count() {
+        return Math.max(1, Integer.getInteger(COUNT_PROPERTY, 1));
+    }
+
+    public static boolean active() {
+        return count() > 1;
+    }
+
+    // A build output path, moved under build/shards/<index> when running as a shard so JVMs never share a file
+    public static File file(String buildRelative) {
+        return active()
+            ? new File("build/shards/" + index(), buildRelative)
+            : new File("build", buildRelative);
+    }
+
+    public static File history() {
+        return new File(System.getProperty(HISTORY_PROPERTY, "build/shards/durations.properties"));
+    }
+
+    // Key of one test invocation, the same form ShardMerger records durations under
+    public static String key(String method, Object[] parameters) {
+        return parameters == null || parameters.length == 0 ? method : method + Arrays.toString(parameters);
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (!active()) {
+            return methods;
+        }
+        Map<String, Integer> owners = plan(methods);
+        List<IMethodInstance> kept = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            String name = method.getMethod().getMethodName();
+            if (isDataDriven(method)) {
+                // The rows themselves are filtered by the data provider, the method stays if this shard owns any
+                if (owners.entrySet().stream().anyMatch(e -> e.getKey().startsWith(name + "[") && e.getValue() == index())) {
+                    kept.add(method);
+                }
+            } else if (owners.getOrDefault(name, 0) == index()) {
+                kept.add(method);
+            }
+        }
+        logCommand("Shard", String.format("%d of %d runs %d of %d methods", index() + 1, count(), kept.size(), methods.size()));
+        return kept;
+    }
+
+    // Whether this shard runs the given invocation, always true when not sharded
+    public static boolean owns(String method, Object[] parameters) {
+        if (!active()) {
+            return true;
+        }
+        Integer owner = plan == null ? null : plan.get(key(method, parameters));
+        return owner == null || owner == index();
+    }
+
+    private static boolean isDataDriven(IMethodInstance method) {
+        Test test = method.getMethod().getConstructorOrMethod().getMethod().getAnnotation(Test.class);
+        return test != null && "excelData".equals(test.dataProvider());
+    }
+
+    // Longest-first greedy assignment: each invocation goes to the shard with the least expected time so far
+    private static synchronized Map<String, Integer> plan(List<IMethodInstance> methods) {
+        if (plan != null) {
+            return plan;
+        }
+        List<String> keys = new ArrayList<>();
+        for (IMethodInstance method : methods) {
+            String name = method.getMethod().getMethodName();
+            if (isDataDriven(method)) {
+                for (Iterator<Object[]> rows = ExcelDataProvider.excelData(); rows.hasNext(); ) {
+                    keys.add(key(name, rows.next()));
+                }
+            } else {
+                keys.add(name);
+            }
+        }
+        Map<String, Long> durations = durations();
+        keys.sort(Comparator.<String>comparingLong(k -> durations.getOrDefault(k, DEFAULT_MILLIS)).reversed()
+            .thenComparing(Comparator.naturalOrder()));
+        long[] load = new long[count()];
+        Map<String, Integer> owners = new HashMap<>();
+        for (String key : keys) {
+            int shard = 0;
+            for (int i = 1; i < load.length; i++) {
+                if (load[i] < load[shard]) {
+                    shard = i;
+                }
+            }
+            owners.put(key, shard);
+            load[shard] += durations.getOrDefault(key, DEFAULT_MILLIS);
+        }
+        logCommand("Shard", String.format("Expected load per shard (ms): %s", Arrays.toString(load)));
+        plan = owners;
+        return plan;
+    }
+
+    private static Map<String, Long> durations() {
+        Map<String, Long> durations = new HashMap<>();
+        File history = history();
+        if (!history.isFile()) {
+            return durations;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(history)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logCommand("Shard", "Unable to read " + history + ": " + e.getMessage());
+        }
+        properties.forEach((key, value) -> durations.put(key.toString(), Long.parseLong(value.toString())));
+        return durations;
+    }
+}
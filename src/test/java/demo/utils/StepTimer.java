@@ -0,0 +1,206 @@
+package demo.utils;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.http.Filter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-operation latency histograms and WebDriver round-trip counts for Wrappers and Helpers steps
+public final class StepTimer {
+    public static final String REPORT_DIR_PROPERTY = "step.report.dir";
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+    private static final ThreadLocal<Deque<Step>> OPEN = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private StepTimer() {
+    }
+
+    public static Step start(String operation) {
+        Step step = new Step(operation);
+        OPEN.get().push(step);
+        return step;
+    }
+
+    // Body of a timed step, throws whatever the wrapped method declares
+    @FunctionalInterface
+    public interface Body<T, E extends Exception> {
+        T get() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+        void run() throws E;
+    }
+
+    // Times the body as one step, e.g. return StepTimer.time("search", () -> ...)
+    public static <T, E extends Exception> T time(String operation, Body<T, E> body) throws E {
+        Step step = start(operation);
+        try {
+            return body.get();
+        } finally {
+            step.close();
+        }
+    }
+
+    public static <E extends Exception> void run(String operation, Action<E> action) throws E {
+        Step step = start(operation);
+        try {
+            action.run();
+        } finally {
+            step.close();
+        }
+    }
+
+    // HTTP filter for the driver's client config, every command sent to chromedriver counts against the open steps
+    public static Filter roundTripFilter() {
+        return next -> request -> {
+            for (Step step : OPEN.get()) {
+                step.roundTrips++;
+            }
+            return next.execute(request);
+        };
+    }
+
+    public static final class Step implements AutoCloseable {
+        private final String operation;
+        private final long started = System.nanoTime();
+        private long roundTrips;
+
+        private Step(String operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - started;
+            OPEN.get().remove(this);
+            HISTOGRAMS.computeIfAbsent(operation, k -> new Histogram()).record(elapsed, roundTrips);
+        }
+    }
+
+    // Log-linear buckets: 16 sub-buckets per power of two of microseconds, within ~6% of the true value
+    static final class Histogram {
+        private static final int SUB_BUCKETS = 16;
+        private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder total = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder totalRoundTrips = new LongAdder();
+        private volatile long maxNanos;
+
+        void record(long nanos, long roundTrips) {
+            counts.incrementAndGet(bucket(nanos / 1000));
+            total.increment();
+            totalNanos.add(nanos);
+            totalRoundTrips.add(roundTrips);
+            synchronized (this) {
+                if (nanos > maxNanos) {
+                    maxNanos = nanos;
+                }
+            }
+        }
+
+        private static int bucket(long micros) {
+            if (micros < SUB_BUCKETS) {
+                return (int) Math.max(0, micros);
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);
+            int shift = exponent - 4;
+            int index = (exponent - 3) * SUB_BUCKETS + (int) ((micros >> shift) - SUB_BUCKETS);
+            return Math.min(index, BUCKETS - 1);
+        }
+
+        private static double upperMicros(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket + 1;
+            }
+            int exponent = bucket / SUB_BUCKETS + 3;
+            long sub = bucket % SUB_BUCKETS + SUB_BUCKETS + 1;
+            return (double) (sub << (exponent - 4));
+        }
+
+        double percentileMillis(double percentile) {
+            long n = total.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * n);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperMicros(i), maxNanos / 1000.0) / 1000.0;
+                }
+            }
+            return maxNanos / 1_000_000.0;
+        }
+
+        Map<String, Object> summary() {
+            long n = total.sum();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", n);
+            row.put("roundTrips", totalRoundTrips.sum());
+            row.put("roundTripsPerCall", n == 0 ? 0.0 : round((double) totalRoundTrips.sum() / n));
+            row.put("meanMs", n == 0 ? 0.0 : round(totalNanos.sum() / 1_000_000.0 / n));
+            row.put("p50Ms", round(percentileMillis(50)));
+            row.put("p90Ms", round(percentileMillis(90)));
+            row.put("p99Ms", round(percentileMillis(99)));
+            row.put("maxMs", round(maxNanos / 1_000_000.0));
+            row.put("totalMs", round(totalNanos.sum() / 1_000_000.0));
+            return row;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+
+    public static Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> rows = new LinkedHashMap<>();
+        HISTOGRAMS.forEach((operation, histogram) -> rows.put(operation, histogram.summary()));
+        return rows;
+    }
+
+    // Writes step-latency.json and step-latency.csv next to testng-results.xml
+    public static void export() {
+        File dir = new File(System.getProperty(REPORT_DIR_PROPERTY, Shards.file("reports/tests/test").getPath()));
+        Map<String, Map<String, Object>> rows = snapshot();
+        if (rows.isEmpty()) {
+            return;
+        }
+        dir.mkdirs();
+        try {
+            Files.write(new File(dir, "step-latency.json").toPath(),
+                new Json().toJson(rows).getBytes(StandardCharsets.UTF_8));
+            try (PrintWriter csv = new PrintWriter(new File(dir, "step-latency.csv"), StandardCharsets.UTF_8)) {
+                List<String> columns = new ArrayList<>(rows.values().iterator().next().keySet());
+                csv.println("operation," + String.join(",", columns));
+                rows.forEach((operation, row) -> {
+                    StringBuilder line = new StringBuilder(operation);
+                    for (String column : columns) {
+                        line.append(',').append(row.get(column));
+                    }
+                    csv.println(line);
+                });
+            }
+            logCommand("Step Latency", "Report written to " + dir.getPath());
+        } catch (IOException e) {
+            logCommand("Step Latency", "Unable to write report: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package demo.utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Shares one ChromeDriver between workers that each own a tab. A session has a single current window, so every
+// command batch runs under one fair lock after switching to its tab. Only the short commands are serialized,
+// the pages keep loading in their own tabs while other workers hold the lock
+public final class TabScheduler {
+    private final WebDriver driver;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final String home;
+    private final List<String> tabs = new ArrayList<>();
+    private String current;
+
+    public TabScheduler(WebDriver driver) {
+        this.driver = driver;
+        this.home = driver.getWindowHandle();
+        this.current = home;
+        this.tabs.add(home);
+    }
+
+    // Opens tabs until there are 'count' including the original one, each loaded with the given URL
+    public List<String> open(int count, String url) {
+        lock.lock();
+        try {
+            while (tabs.size() < count) {
+                driver.switchTo().newWindow(WindowType.TAB);
+                tabs.add(driver.getWindowHandle());
+            }
+            for (String tab : tabs) {
+                driver.switchTo().window(tab);
+                driver.get(url);
+            }
+            current = tabs.get(tabs.size() - 1);
+            return new ArrayList<>(tabs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs one batch of commands against the tab, waiting for any batch on another tab to finish first
+    public <T> T on(String tab, Function<WebDriver, T> commands) {
+        long started = System.nanoTime();
+        lock.lock();
+        try {
+            waitNanos.add(System.nanoTime() - started);
+            batches.increment();
+            if (!tab.equals(current)) {
+                driver.switchTo().window(tab);
+                current = tab;
+            }
+            return commands.apply(driver);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Closes every tab but the original one and leaves the driver on it, as the pool expects
+    public void close() {
+        lock.lock();
+        try {
+            for (String tab : tabs) {
+                if (!tab.equals(home)) {
+                    driver.switchTo().window(tab);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(home);
+            current = home;
+            tabs.retainAll(List.of(home));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Average time a batch waited for the driver, the cost of serializing commands across tabs
+    public String contention() {
+        long count = batches.sum();
+        return String.format("%d command batches, avg wait %d ms", count,
+            count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos.sum() / count));
+    }
+}
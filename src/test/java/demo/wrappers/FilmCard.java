@@ -0,0 +1,36 @@
+package demo.wrappers;
+
+import java.util.List;
+import java.util.Set;
+
+// One film from a movie shelf with its certificate badge and the category its metadata line starts with
+public record FilmCard(String section, int position, String title, String certificate, String category) {
+    public static final Set<String> CERTIFICATES = Set.of("A", "U/A", "U", "PG", "R", "NC-17");
+    public static final Set<String> CATEGORIES = Set.of("Action and adventure", "Comedy", "Crime", "Drama", "Horror", "Indian cinema", "Romance", "Science fiction", "Thriller", "Animation", "Documentary", "Family", "Fantasy", "Music", "War");
+
+    // First badge that is a known certificate, badge order differs between shelves and locales
+    static String certificateOf(List<String> badges) {
+        for (String badge : badges) {
+            String text = badge.trim();
+            if (CERTIFICATES.stream().anyMatch(c -> c.equalsIgnoreCase(text))) {
+                return text;
+            }
+        }
+        return "";
+    }
+
+    // Known category at the start of the first line that has one, e.g. "Comedy 2023" or "Science fiction 2h 5m"
+    static String categoryOf(List<String> lines) {
+        for (String line : lines) {
+            String text = line.trim();
+            for (String category : CATEGORIES) {
+                int end = category.length();
+                if (text.regionMatches(true, 0, category, 0, end)
+                    && (text.length() == end || !Character.isLetter(text.charAt(end)))) {
+                    return text.substring(0, end);
+                }
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,351 @@
+package demo.wrappers;
+
+import demo.utils.CountParser;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+import org.openqa.selenium.json.JsonType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Film, playlist, news and search cards parsed from a page's embedded ytInitialData JSON
+public final class InitialDataModel {
+    // Renderers holding one card, mapped to the kind of card they describe
+    private static final Map<String, String> CARD_RENDERERS = Map.of(
+        "gridMovieRenderer", "movie",
+        "movieRenderer", "movie",
+        "gridPlaylistRenderer", "playlist",
+        "playlistRenderer", "playlist",
+        "compactStationRenderer", "playlist",
+        "backstagePostRenderer", "post",
+        "postRenderer", "post",
+        "videoRenderer", "video");
+    // Renderers that group cards under a title
+    private static final List<String> SHELF_RENDERERS = List.of("richShelfRenderer", "shelfRenderer", "reelShelfRenderer");
+    private static final Pattern TRACK_COUNT = Pattern.compile("(?i)^(\\d[\\d,]*)\\s+(videos?|tracks?|songs?)\\b");
+
+    // Shelf title to the cards it holds, in page order, one list per kind
+    private final Map<String, Map<String, List<Map<String, Object>>>> shelves = new LinkedHashMap<>();
+
+    private InitialDataModel() {
+    }
+
+    static InitialDataModel empty() {
+        return new InitialDataModel();
+    }
+
+    // Walks the JSON with a pull parser, only card renderers are materialised
+    static InitialDataModel parse(Reader json) {
+        InitialDataModel model = new InitialDataModel();
+        try (JsonInput in = new Json().newInput(json)) {
+            model.walk(in, "");
+        }
+        return model;
+    }
+
+    // Reads a fixture saved either as the raw JSON or as the page HTML containing "var ytInitialData = {...};"
+    public static InitialDataModel fromFixture(Path fixture) throws IOException {
+        String text = Files.readString(fixture, StandardCharsets.UTF_8);
+        int marker = text.indexOf("ytInitialData");
+        if (!text.stripLeading().startsWith("{") && marker >= 0) {
+            int start = text.indexOf('{', marker);
+            int end = text.indexOf(";</script>", start);
+            text = text.substring(start, end < 0 ? text.length() : end);
+        }
+        return parse(new StringReader(text));
+    }
+
+    public boolean isEmpty() {
+        return shelves.isEmpty();
+    }
+
+    private void walk(JsonInput in, String shelf) {
+        switch (in.peek()) {
+            case START_MAP:
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    String kind = CARD_RENDERERS.get(name);
+                    if (kind != null) {
+                        add(shelf, kind, in.read(Json.MAP_TYPE));
+                    } else if (SHELF_RENDERERS.contains(name)) {
+                        walkShelf(in);
+                    } else {
+                        walk(in, shelf);
+                    }
+                }
+                in.endObject();
+                break;
+            case START_COLLECTION:
+                in.beginArray();
+                while (in.hasNext()) {
+                    walk(in, shelf);
+                }
+                in.endArray();
+                break;
+            default:
+                in.skipValue();
+        }
+    }
+
+    // The shelf title comes before its contents in YouTube's responses, so cards after it are filed under it
+    private void walkShelf(JsonInput in) {
+        if (in.peek() != JsonType.START_MAP) {
+            in.skipValue();
+            return;
+        }
+        String title = "";
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("title".equals(name)) {
+                title = text(in.read(Object.class));
+            } else {
+                walk(in, title);
+            }
+        }
+        in.endObject();
+    }
+
+    private void add(String shelf, String kind, Map<String, Object> renderer) {
+        shelves.computeIfAbsent(shelf, s -> new LinkedHashMap<>())
+            .computeIfAbsent(kind, k -> new ArrayList<>())
+            .add(renderer);
+    }
+
+    // Cards of one kind in a shelf picked by 1-based number among shelves holding that kind, or by title text
+    private List<Map<String, Object>> cards(String kind, String section) {
+        int number = section != null && section.matches("\\d+") ? Integer.parseInt(section) : 0;
+        String wanted = section == null ? "" : section.toLowerCase(Locale.ROOT);
+        int seen = 0;
+        for (Map.Entry<String, Map<String, List<Map<String, Object>>>> shelf : shelves.entrySet()) {
+            List<Map<String, Object>> cards = shelf.getValue().get(kind);
+            if (cards == null) {
+                continue;
+            }
+            seen++;
+            if (number > 0 ? seen == number : shelf.getKey().toLowerCase(Locale.ROOT).contains(wanted)) {
+                return cards;
+            }
+        }
+        return List.of();
+    }
+
+    private static Map<String, Object> at(List<Map<String, Object>> cards, int index) {
+        int i = index < 0 ? cards.size() - 1 : index - 1;
+        return i >= 0 && i < cards.size() ? cards.get(i) : null;
+    }
+
+    private static int position(List<Map<String, Object>> cards, int index) {
+        return index < 0 ? cards.size() : index;
+    }
+
+    // Film at a 1-based index, -1 for the last one, or null when the shelf or card is not in the data
+    public FilmCard film(String section, int index) {
+        List<Map<String, Object>> cards = cards("movie", section);
+        Map<String, Object> card = at(cards, index);
+        if (card == null) {
+            return null;
+        }
+        // The category is read from the metadata and badge lines only, a film titled "Drama Queen" is not a drama
+        Map<String, Object> details = new LinkedHashMap<>(card);
+        details.remove("title");
+        return new FilmCard(section, position(cards, index), text(card.get("title")),
+            FilmCard.certificateOf(labels(card)), FilmCard.categoryOf(texts(details)));
+    }
+
+    public PlaylistCard playlist(String section, int index) {
+        List<Map<String, Object>> cards = cards("playlist", section);
+        Map<String, Object> card = at(cards, index);
+        if (card == null) {
+            return null;
+        }
+        int tracks = 0;
+        Object count = card.get("videoCount");
+        if (count != null) {
+            tracks = (int) CountParser.parse(count.toString());
+        } else {
+            for (String line : texts(card)) {
+                Matcher matcher = TRACK_COUNT.matcher(line);
+                if (matcher.find()) {
+                    tracks = (int) CountParser.parse(matcher.group(1));
+                    break;
+                }
+            }
+        }
+        return new PlaylistCard(section, position(cards, index), text(card.get("title")), tracks);
+    }
+
+    // News posts from..to (1-based, inclusive), empty when the data holds fewer posts than asked for
+    public List<NewsPost> posts(String section, int from, int to) {
+        List<Map<String, Object>> cards = cards("post", section);
+        if (cards.size() < to) {
+            return List.of();
+        }
+        List<NewsPost> posts = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            Map<String, Object> card = cards.get(i - 1);
+            String[] content = text(card.get("contentText")).split("\n", 2);
+            posts.add(new NewsPost(section, i,
+                text(card.get("authorText")),
+                text(card.get("publishedTimeText")),
+                content[0].trim(),
+                content.length > 1 ? content[1].trim() : "",
+                CountParser.parse(text(card.get("voteCount"))),
+                CountParser.parse(texts(find(card, "replyButton")).stream().findFirst().orElse(""))));
+        }
+        return posts;
+    }
+
+    // Search results from a 1-based index, empty when the data holds fewer results than asked for
+    public List<VideoCard> videos(String keyword, int fromIndex, int count) {
+        List<Map<String, Object>> cards = new ArrayList<>();
+        shelves.values().forEach(kinds -> cards.addAll(kinds.getOrDefault("video", List.of())));
+        if (cards.size() < fromIndex - 1 + count) {
+            return List.of();
+        }
+        List<VideoCard> videos = new ArrayList<>();
+        for (int i = fromIndex; i < fromIndex + count; i++) {
+            Map<String, Object> card = cards.get(i - 1);
+            videos.add(new VideoCard(keyword, i, text(card.get("title")),
+                CountParser.parse(text(card.get("viewCountText"))), text(card.get("publishedTimeText"))));
+        }
+        return videos;
+    }
+
+    // Text of a {simpleText} or {runs: [{text}]} node, or of a plain string
+    static String text(Object node) {
+        if (node instanceof String) {
+            return (String) node;
+        }
+        if (!(node instanceof Map)) {
+            return "";
+        }
+        Map<?, ?> map = (Map<?, ?>) node;
+        if (map.get("simpleText") instanceof String) {
+            return (String) map.get("simpleText");
+        }
+        if (map.get("runs") instanceof List) {
+            StringBuilder text = new StringBuilder();
+            for (Object run : (List<?>) map.get("runs")) {
+                if (run instanceof Map && ((Map<?, ?>) run).get("text") != null) {
+                    text.append(((Map<?, ?>) run).get("text"));
+                }
+            }
+            return text.toString();
+        }
+        return "";
+    }
+
+    // Every text node under the renderer in document order, the JSON counterpart of the card's innerText lines
+    private static List<String> texts(Object node) {
+        List<String> out = new ArrayList<>();
+        collectTexts(node, out);
+        return out;
+    }
+
+    private static void collectTexts(Object node, List<String> out) {
+        if (node instanceof Map) {
+            String text = text(node);
+            if (!text.isEmpty()) {
+                out.add(text);
+                return;
+            }
+            for (Object value : ((Map<?, ?>) node).values()) {
+                collectTexts(value, out);
+            }
+        } else if (node instanceof List) {
+            for (Object value : (List<?>) node) {
+                collectTexts(value, out);
+            }
+        }
+    }
+
+    // Badge labels such as the film certificate
+    private static List<String> labels(Object node) {
+        List<String> out = new ArrayList<>();
+        collectLabels(node, out);
+        return out;
+    }
+
+    private static void collectLabels(Object node, List<String> out) {
+        if (node instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) node;
+            Object badge = map.get("metadataBadgeRenderer");
+            if (badge instanceof Map && ((Map<?, ?>) badge).get("label") != null) {
+                out.add(String.valueOf(((Map<?, ?>) badge).get("label")));
+            }
+            for (Object value : map.values()) {
+                collectLabels(value, out);
+            }
+        } else if (node instanceof List) {
+            for (Object value : (List<?>) node) {
+                collectLabels(value, out);
+            }
+        }
+    }
+
+    private static Object find(Object node, String key) {
+        if (node instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) node;
+            if (map.containsKey(key)) {
+                return map.get(key);
+            }
+            for (Object value : map.values()) {
+                Object found = find(value, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object value : (List<?>) node) {
+                Object found = find(value, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        shelves.forEach((shelf, kinds) -> kinds.forEach((kind, cards) ->
+            out.append(out.length() == 0 ? "" : ", ").append(shelf.isEmpty() ? "(untitled)" : shelf)
+                .append(' ').append(kind).append('=').append(cards.size())));
+        return out.toString();
+    }
+
+    // Offline check against a saved page: prints every shelf and the first and last card of each kind
+    public static void main(String[] args) throws IOException {
+        Path fixture = Paths.get(args.length > 0 ? args[0] : "src/test/resources/fixtures/initial-data-sample.json");
+        InitialDataModel model = fromFixture(fixture);
+        logCommand("Shelves", model.summary());
+        model.shelves.forEach((shelf, kinds) -> {
+            if (kinds.containsKey("movie")) {
+                logCommand("Film", model.film(shelf, 1) + " / " + model.film(shelf, -1));
+            }
+            if (kinds.containsKey("playlist")) {
+                logCommand("Playlist", model.playlist(shelf, 1) + " / " + model.playlist(shelf, -1));
+            }
+            if (kinds.containsKey("post")) {
+                logCommand("Posts", String.valueOf(model.posts(shelf, 1, kinds.get("post").size())));
+            }
+        });
+        logCommand("Videos", String.valueOf(model.videos("fixture", 1, 1)));
+    }
+}
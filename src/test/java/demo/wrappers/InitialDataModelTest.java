@@ -0,0 +1,78 @@
+package demo.wrappers;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+// Cards read from the saved ytInitialData sample without a browser, runs via ./gradlew offlineTest.
+// A null or empty answer is what makes Wrappers fall back to reading the DOM
+public class InitialDataModelTest {
+    private InitialDataModel model;
+
+    @BeforeClass
+    public void load() throws IOException {
+        model = InitialDataModel.fromFixture(Paths.get("src/test/resources/fixtures/initial-data-sample.json"));
+    }
+
+    @Test
+    public void filmsByPositionAndLast() {
+        Assert.assertEquals(model.film("Top selling", 1), new FilmCard("Top selling", 1, "First Film", "U/A", "Comedy"));
+        Assert.assertEquals(model.film("Top selling", -1), new FilmCard("Top selling", 4, "Last Film", "A", "Drama"));
+        Assert.assertEquals(model.film("1", -1).title(), "Last Film", "Shelf by number");
+    }
+
+    @Test
+    public void categoryIsNotReadFromTheTitle() {
+        Assert.assertEquals(model.film("Top selling", 2).category(), "Comedy", "Drama Queen");
+        Assert.assertEquals(model.film("Top selling", 3).category(), "", "Action Point");
+    }
+
+    @Test
+    public void playlistsByPositionAndLast() {
+        Assert.assertEquals(model.playlist("Biggest hits", 1), new PlaylistCard("Biggest hits", 1, "Hits Mix", 50));
+        Assert.assertEquals(model.playlist("1", -1), new PlaylistCard("1", 2, "Chill Radio", 1204));
+    }
+
+    @Test
+    public void postsWithLikesAndComments() {
+        List<NewsPost> posts = model.posts("Latest news posts", 1, 2);
+        Assert.assertEquals(posts, List.of(
+            new NewsPost("Latest news posts", 1, "News Channel", "2 hours ago", "Headline one", "Body of the first post", 1200, 35),
+            new NewsPost("Latest news posts", 2, "Other Channel", "1 day ago", "Headline two", "", 0, 0)));
+    }
+
+    @Test
+    public void videosFromAnIndex() {
+        Assert.assertEquals(model.videos("sample", 1, 2), List.of(
+            new VideoCard("sample", 1, "First Video", 1234567, "3 weeks ago"),
+            new VideoCard("sample", 2, "Second Video", 2500000, "1 year ago")));
+        Assert.assertEquals(model.videos("sample", 2, 1), List.of(new VideoCard("sample", 2, "Second Video", 2500000, "1 year ago")));
+    }
+
+    @Test
+    public void missingShelfFallsBack() {
+        Assert.assertNull(model.film("Coming soon", 1));
+        Assert.assertNull(model.film("2", 1), "Only one film shelf");
+        Assert.assertNull(model.playlist("Coming soon", -1));
+        Assert.assertTrue(model.posts("Coming soon", 1, 1).isEmpty());
+    }
+
+    @Test
+    public void missingCardFallsBack() {
+        Assert.assertNull(model.film("Top selling", 5));
+        Assert.assertNull(model.playlist("Biggest hits", 3));
+        Assert.assertTrue(model.posts("Latest news posts", 1, 3).isEmpty(), "Fewer posts than asked for");
+        Assert.assertTrue(model.videos("sample", 2, 2).isEmpty(), "Fewer videos than asked for");
+    }
+
+    @Test
+    public void pageWithoutDataIsEmpty() {
+        Assert.assertTrue(InitialDataModel.empty().isEmpty());
+        Assert.assertNull(InitialDataModel.empty().film("Top selling", -1));
+        Assert.assertTrue(InitialDataModel.empty().videos("sample", 1, 1).isEmpty());
+    }
+}
@@ -0,0 +1,221 @@
+package demo.wrappers;
+
+import demo.utils.JsonValues;
+import demo.utils.ResultWriter;
+import demo.utils.StepTimer;
+import demo.utils.TabScheduler;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Runs the search-and-sum pipeline for many keywords at once, one worker per tab of the same browser.
+// Each worker only holds the driver for short command batches and waits for YouTube off the lock
+public class KeywordFanOut {
+    public static final String TABS_PROPERTY = "search.fanout.tabs";
+    public static final String BASELINE_PROPERTY = "search.fanout.baseline";
+
+    private static final String HOME_URL = "https://www.youtube.com";
+    private static final long POLL_MILLIS = 250;
+    private static final long STALL_MILLIS = 15000;
+
+    // Results are ready once the URL carries this keyword, YouTube's navigation progress bar is idle and cards exist
+    private static final String READY_SCRIPT =
+        "const query = new URLSearchParams(location.search).get('search_query');"
+        + "const progress = document.querySelector('yt-page-navigation-progress');"
+        + "return query === arguments[0] && (!progress || progress.hasAttribute('hidden'))"
+        + "  && document.querySelectorAll('ytd-video-renderer').length > 0;";
+
+    private final WebDriver driver;
+    private final int tabs;
+
+    KeywordFanOut(WebDriver driver, int tabs) {
+        this.driver = driver;
+        this.tabs = Math.max(1, tabs);
+    }
+
+    public static int tabs() {
+        return Integer.getInteger(TABS_PROPERTY, 1);
+    }
+
+    // Searches every keyword and sums card views until each one reaches viewTarget or runs out of results
+    public List<KeywordRun> run(List<String> keywords, long viewTarget) throws InterruptedException {
+        TabScheduler scheduler = new TabScheduler(driver);
+        long started = System.nanoTime();
+        LinkedBlockingQueue<String> free = new LinkedBlockingQueue<>(scheduler.open(Math.min(tabs, keywords.size()), HOME_URL));
+        List<String> handles = new ArrayList<>(free);
+        ExecutorService workers = Executors.newFixedThreadPool(free.size(), task -> {
+            Thread thread = new Thread(task, "keyword-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<KeywordRun>> runs = new ArrayList<>();
+        try {
+            for (String keyword : keywords) {
+                runs.add(workers.submit(() -> {
+                    String tab = free.take();
+                    try {
+                        return search(scheduler, tab, handles.indexOf(tab) + 1, keyword, viewTarget);
+                    } finally {
+                        free.put(tab);
+                    }
+                }));
+            }
+            List<KeywordRun> results = new ArrayList<>();
+            for (Future<KeywordRun> run : runs) {
+                try {
+                    results.add(run.get());
+                } catch (ExecutionException e) {
+                    logCommand("Fan-out Exception", e.getCause().toString());
+                }
+            }
+            report(keywords, results, System.nanoTime() - started, scheduler);
+            return results;
+        } finally {
+            workers.shutdownNow();
+            scheduler.close();
+        }
+    }
+
+    private KeywordRun search(TabScheduler scheduler, String tab, int tabNumber, String keyword, long viewTarget)
+            throws InterruptedException {
+        long started = System.nanoTime();
+        try {
+            return StepTimer.time("fanOutKeyword", () -> {
+                scheduler.on(tab, d -> {
+                    WebElement input = (WebElement) ((JavascriptExecutor) d).executeScript(
+                        "return document.querySelector('input[name=search_query]');");
+                    input.click();
+                    input.sendKeys(Keys.chord(Keys.CONTROL, "a"));
+                    input.sendKeys(Keys.DELETE);
+                    input.sendKeys(keyword + Keys.ENTER);
+                    return null;
+                });
+                long waited = 0;
+                while (!Boolean.TRUE.equals(scheduler.on(tab, d -> ((JavascriptExecutor) d).executeScript(READY_SCRIPT, keyword)))) {
+                    if (waited >= STALL_MILLIS) {
+                        logCommand("Fan-out Warning", "No results for '" + keyword + "' in tab " + tabNumber);
+                        return finish(keyword, tabNumber, 0, 0, false, started);
+                    }
+                    Thread.sleep(POLL_MILLIS);
+                    waited += POLL_MILLIS;
+                }
+
+                int read = 0;
+                long views = 0;
+                long stalled = 0;
+                while (views < viewTarget && stalled < STALL_MILLIS) {
+                    int from = read;
+                    Map<String, Object> batch = scheduler.on(tab, d -> JsonValues.map(((JavascriptExecutor) d)
+                        .executeScript(SearchResultSpliterator.NEXT_BATCH_SCRIPT, from, 10, 10)));
+                    List<Map<String, Object>> cards = JsonValues.maps(batch.get("cards"));
+                    for (Map<String, Object> card : cards) {
+                        VideoCard video = VideoCard.fromScript(keyword, ++read, card);
+                        ResultWriter.write(video);
+                        views += video.views();
+                        if (views >= viewTarget) {
+                            break;
+                        }
+                    }
+                    if (!cards.isEmpty()) {
+                        stalled = 0;
+                    } else if (!Boolean.TRUE.equals(batch.get("more"))) {
+                        break;
+                    } else {
+                        // The continuation was scrolled into view by the batch script, its network fetch runs off the lock
+                        Thread.sleep(POLL_MILLIS);
+                        stalled += POLL_MILLIS;
+                    }
+                }
+                return finish(keyword, tabNumber, read, views, views >= viewTarget, started);
+            });
+        } catch (WebDriverException e) {
+            logCommand("Fan-out Exception", keyword + ": " + e.getMessage());
+            return finish(keyword, tabNumber, 0, 0, false, started);
+        }
+    }
+
+    private static KeywordRun finish(String keyword, int tab, int videos, long views, boolean reached, long started) {
+        KeywordRun run = new KeywordRun(keyword, tab, videos, views, reached, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        ResultWriter.write(run);
+        logCommand("Fan-out Keyword", String.format("%s tab=%d videos=%d views=%d reached=%b %dms",
+            keyword, tab, videos, views, reached, run.millis()));
+        return run;
+    }
+
+    // Keywords per minute, compared with a one-tab run of this same pipeline over the same keywords when one exists.
+    // Only that run counts as serial: it pays the same tab opening, home page and scheduling as the concurrent one
+    private void report(List<String> keywords, List<KeywordRun> runs, long wallNanos, TabScheduler scheduler) {
+        long wallMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(wallNanos));
+        int used = Math.min(tabs, runs.size());
+        double rate = runs.size() * 60000.0 / wallMillis;
+        String key = String.join(",", new TreeSet<>(keywords));
+        String summary = String.format("%d keywords on %d tabs in %d ms: %.1f keywords/min", runs.size(), used, wallMillis, rate);
+        if (used == 1) {
+            if (runs.size() == keywords.size()) {
+                recordSerial(key, wallMillis);
+                summary += ", recorded as the serial baseline";
+            }
+        } else {
+            String serial = loadBaseline().getProperty(key);
+            if (serial == null) {
+                summary += ", no serial baseline for these keywords (run once with -D" + TABS_PROPERTY + "=1 to record one)";
+            } else {
+                double serialRate = keywords.size() * 60000.0 / Math.max(1, Long.parseLong(serial));
+                summary += String.format(" vs %.1f serial, %.1fx", serialRate, rate / serialRate);
+            }
+        }
+        logCommand("Fan-out Throughput", summary + "; " + scheduler.contention());
+    }
+
+    // Records the wall time of a complete one-tab run, keyed by its keyword set
+    private static synchronized void recordSerial(String keywords, long millis) {
+        Properties baseline = loadBaseline();
+        baseline.setProperty(keywords, String.valueOf(millis));
+        File file = baselineFile();
+        file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            baseline.store(out, "One-tab fan-out wall time in ms per keyword set");
+        } catch (IOException e) {
+            logCommand("Fan-out Baseline", "Unable to write " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static File baselineFile() {
+        return new File(System.getProperty(BASELINE_PROPERTY, "build/reports/keyword-baseline.properties"));
+    }
+
+    private static synchronized Properties loadBaseline() {
+        Properties baseline = new Properties();
+        File file = baselineFile();
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                baseline.load(in);
+            } catch (IOException e) {
+                logCommand("Fan-out Baseline", "Unable to read " + file + ": " + e.getMessage());
+            }
+        }
+        return baseline;
+    }
+}
@@ -0,0 +1,5 @@
+package demo.wrappers;
+
+// Outcome of one keyword in a fan-out search: cards read, views summed and how long its pipeline took
+public record KeywordRun(String keyword, int tab, int videos, long views, boolean reached, long millis) {
+}
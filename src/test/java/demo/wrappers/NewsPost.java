@@ -0,0 +1,6 @@
+package demo.wrappers;
+
+// One post from a news shelf, likes and comments already parsed to numbers
+public record NewsPost(String section, int position, String channel, String posted, String title, String body,
+                       long likes, long comments) {
+}
@@ -0,0 +1,5 @@
+package demo.wrappers;
+
+// One playlist from a music shelf with its track count parsed to a number
+public record PlaylistCard(String section, int position, String title, int trackCount) {
+}
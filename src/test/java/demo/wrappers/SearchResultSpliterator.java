@@ -0,0 +1,164 @@
+package demo.wrappers;
+
+import demo.utils.JsonValues;
+import demo.utils.PageWait;
+import demo.utils.ResultWriter;
+import demo.utils.StepTimer;
+import static demo.utils.Helpers.logCommand;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Streams search result cards in page order, keeping the next infinite-scroll continuation loading ahead of the reader
+public class SearchResultSpliterator implements Spliterator<VideoCard> {
+    public static final String PREFETCH_PROPERTY = "search.prefetch";
+    public static final String RETRIES_PROPERTY = "search.retries";
+
+    // Reads the next batch and, when fewer than 'ahead' unread cards remain loaded, scrolls the continuation
+    // into view so YouTube fetches it while the batch is being consumed. The only place search cards are read
+    // from the DOM: Wrappers.searchResults reads through this spliterator and KeywordFanOut runs the script per tab
+    static final String NEXT_BATCH_SCRIPT =
+        "const cards = document.querySelectorAll('ytd-video-renderer');"
+        + "const from = arguments[0], end = Math.min(cards.length, from + arguments[1]);"
+        + "const out = [];"
+        + "for (let i = from; i < end; i++) {"
+        + "  const title = cards[i].querySelector('#video-title');"
+        + "  const meta = Array.from(cards[i].querySelectorAll('#metadata-line span')).map(s => s.textContent.trim());"
+        + "  out.push({title: title ? title.textContent.trim() : '',"
+        + "    views: meta.find(m => /views?$/i.test(m)) || '',"
+        + "    posted: meta.find(m => /ago$/i.test(m)) || ''});"
+        + "}"
+        + "const continuation = document.querySelector('ytd-continuation-item-renderer');"
+        + "if (continuation && cards.length - end < arguments[2]) {"
+        + "  continuation.scrollIntoView({block: 'end'});"
+        + "}"
+        + "return {loaded: cards.length, more: !!continuation, cards: out};";
+
+    private final String keyword;
+    private final JavascriptExecutor js;
+    private final PageWait wait;
+    private final Deque<VideoCard> buffer = new ArrayDeque<>();
+    private int prefetch = Integer.getInteger(PREFETCH_PROPERTY, 10);
+    private int retries = Integer.getInteger(RETRIES_PROPERTY, 3);
+    private Predicate<VideoCard> stopWhen = card -> false;
+    private int read;
+    private boolean done;
+
+    SearchResultSpliterator(String keyword, JavascriptExecutor js, PageWait wait) {
+        this.keyword = keyword;
+        this.js = js;
+        this.wait = wait;
+    }
+
+    // Starts the stream at a 1-based position, the cards before it are neither read nor written
+    public SearchResultSpliterator from(int position) {
+        if (position < 1) {
+            throw new IllegalArgumentException("Start position must be positive: " + position);
+        }
+        this.read = position - 1;
+        return this;
+    }
+
+    // Number of cards read per round trip and kept loaded ahead of the reader
+    public SearchResultSpliterator prefetch(int cards) {
+        if (cards < 1) {
+            throw new IllegalArgumentException("Prefetch depth must be positive: " + cards);
+        }
+        this.prefetch = cards;
+        return this;
+    }
+
+    // Number of times a stalled continuation is scrolled again before the stream ends
+    public SearchResultSpliterator retries(int attempts) {
+        if (attempts < 0) {
+            throw new IllegalArgumentException("Retries must not be negative: " + attempts);
+        }
+        this.retries = attempts;
+        return this;
+    }
+
+    // Ends the stream after the first card the predicate accepts, that card is still emitted
+    public SearchResultSpliterator stopWhen(Predicate<VideoCard> predicate) {
+        this.stopWhen = predicate;
+        return this;
+    }
+
+    public Stream<VideoCard> stream() {
+        return StreamSupport.stream(this, false);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super VideoCard> action) {
+        if (done) {
+            return false;
+        }
+        if (buffer.isEmpty() && !fill()) {
+            done = true;
+            return false;
+        }
+        VideoCard card = buffer.poll();
+        read++;
+        // Written when handed to the reader, cards still buffered when the stream stops never reach the results file
+        ResultWriter.write(card);
+        action.accept(card);
+        if (stopWhen.test(card)) {
+            done = true;
+        }
+        return true;
+    }
+
+    private boolean fill() {
+        return StepTimer.time("searchStream", () -> {
+            // Only rounds that load nothing count against the retries, a stream started far down keeps reading
+            int stalls = 0;
+            while (true) {
+                Map<String, Object> batch = JsonValues.map(js.executeScript(NEXT_BATCH_SCRIPT, read, prefetch, prefetch));
+                for (Map<String, Object> card : JsonValues.maps(batch.get("cards"))) {
+                    buffer.add(VideoCard.fromScript(keyword, read + buffer.size() + 1, card));
+                }
+                if (!buffer.isEmpty()) {
+                    return true;
+                }
+                if (!Boolean.TRUE.equals(batch.get("more"))) {
+                    logCommand("Search Stream", String.format("End of results for '%s' after %d cards", keyword, read));
+                    return false;
+                }
+                long loaded = ((Number) batch.get("loaded")).longValue();
+                try {
+                    wait.untilScript("return document.querySelectorAll('ytd-video-renderer').length > arguments[0];", loaded);
+                } catch (TimeoutException e) {
+                    logCommand("Search Stream Warning", String.format("Continuation for '%s' stalled at %d cards, attempt %d of %d",
+                        keyword, loaded, ++stalls, retries + 1));
+                    if (stalls > retries) {
+                        return false;
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public Spliterator<VideoCard> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
@@ -0,0 +1,20 @@
+package demo.wrappers;
+
+import demo.utils.CountParser;
+
+import java.util.Map;
+
+// One search result card, views already parsed to a number
+public record VideoCard(String keyword, int position, String title, long views, String posted) {
+
+    // Builds a card from the {title, views, posted} object the search card scripts return
+    static VideoCard fromScript(String keyword, int position, Map<String, Object> card) {
+        return new VideoCard(keyword, position, text(card, "title"),
+            CountParser.parse(text(card, "views")), text(card, "posted"));
+    }
+
+    private static String text(Map<String, Object> card, String key) {
+        Object value = card.get(key);
+        return value == null ? "" : value.toString().trim();
+    }
+}
@@ -16,8 +16,10 @@ import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.Select;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
+import java.io.StringReader;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -30,53 +32,163 @@ import java.util.stream.Collectors;
 
 public class Wrappers {
     private final WebDriver driver;
-    private final FluentWait<WebDriver> wait;
+    private final PageWait wait;
+    private final PageWait sidebarWait;
     private final JavascriptExecutor js;
     public final Helpers helpers;
-    private String filmCardlocator, musicCardLocator, newsCardLocator;
+    private final LocatorRegistry locators = new LocatorRegistry();
+    // Film and playlist cards read on the current page, keyed by kind, section and position
+    private final Map<String, Record> shelfCards = new HashMap<>();
+    private String sidebarPath = "none";
+    // ytInitialData of the current page, fetched on first use and dropped whenever the page changes
+    private InitialDataModel initialData;
+
+    private static final int SEARCH_RESULT_RETRIES = 10;
+    // "initialData" answers card queries from the page's embedded JSON first, "dom" always scrapes the page
+    private static final boolean INITIAL_DATA = !"dom".equalsIgnoreCase(System.getProperty("extraction.engine", "initialData"));
+
+    // Finds the first visible match, trying the CSS twin before falling back to the XPath
+    private static final String FIND_VISIBLE_SCRIPT =
+        "const visible = el => el && el.getClientRects().length > 0 ? el : null;"
+        + "return visible(arguments[0] && document.querySelector(arguments[0]))"
+        + "  || visible(document.evaluate(arguments[1], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue);";
+
+    // Resolves a shelf card by 1-based index (-1 for the last one) once it is rendered. A collapsed shelf is
+    // expanded with its own "Show more" button from inside the page, so no pointer input or animation wait is needed
+    private static final String SHELF_CARD_SCRIPT =
+        "const shelf = document.evaluate(arguments[0], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+        + "if (!shelf) { return null; }"
+        + "const cards = shelf.querySelectorAll(arguments[1]);"
+        + "const card = arguments[3] < 0 ? cards[cards.length - 1] : cards[arguments[3] - 1];"
+        + "const rendered = !!card && card.getClientRects().length > 0;"
+        + "const more = Array.from(shelf.querySelectorAll('button'))"
+        + "  .find(b => /show more/i.test(b.getAttribute('aria-label') || b.textContent));"
+        + "if ((!rendered || arguments[3] < 0) && more && !shelf.dataset.shelfExpanded) {"
+        + "  shelf.dataset.shelfExpanded = 'true';"
+        + "  more.click();"
+        + "  return null;"
+        + "}"
+        + "if (!rendered) { return null; }"
+        + "const text = el => el ? el.textContent.trim() : '';"
+        + "return {count: cards.length, index: Array.prototype.indexOf.call(cards, card) + 1,"
+        + "  title: text(card.querySelector('#video-title, #title, h3')),"
+        + "  lines: card.innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0),"
+        + "  badges: Array.from(card.querySelectorAll(arguments[2])).map(text)};";
+
+    // Collects the visible headings and paragraphs in document order, plus the first heading mentioning "About"
+    // (or the first heading at all) so the caller can read one element directly
+    private static final String PAGE_CONTENT_SCRIPT =
+        "const maxBlocks = arguments[0], maxChars = arguments[1];"
+        + "const visible = Array.from(document.querySelectorAll('h1, h2, h3, p'))"
+        + "  .filter(el => el.getClientRects().length > 0 && el.innerText.trim().length > 0);"
+        + "if (visible.length === 0) { return null; }"
+        + "const headings = visible.filter(el => /^H[1-3]$/.test(el.tagName));"
+        + "const heading = headings.find(el => /about/i.test(el.innerText)) || headings[0] || visible[0];"
+        + "const kept = maxBlocks > 0 ? visible.slice(0, maxBlocks) : visible;"
+        + "const blocks = kept.map(el => {"
+        + "  const text = el.innerText.trim();"
+        + "  return [el.tagName.toLowerCase(), maxChars > 0 && text.length > maxChars ? text.slice(0, maxChars) + '...' : text];"
+        + "});"
+        + "return {heading: heading, blocks: blocks, omitted: visible.length - kept.length};";
+
+    // The app's latest response after in-app navigation, or the inline ytInitialData when it still belongs to this URL
+    private static final String INITIAL_DATA_SCRIPT =
+        "const app = document.querySelector('ytd-app');"
+        + "const response = app && app.data && app.data.response;"
+        + "if (response) { return JSON.stringify(response); }"
+        + "const entry = performance.getEntriesByType('navigation')[0];"
+        + "return window.ytInitialData && entry && entry.name === location.href ? JSON.stringify(window.ytInitialData) : null;";
+
+    // Scrolls the shelf into view once and reads every requested post card's fields and visible lines
+    private static final String NEWS_POSTS_SCRIPT =
+        "const shelf = arguments[0], from = arguments[1], to = arguments[2];"
+        + "shelf.scrollIntoView({block: 'center'});"
+        + "const text = (card, css) => { const el = card.querySelector(css); return el ? el.innerText.trim() : ''; };"
+        + "return Array.from(shelf.querySelectorAll('ytd-rich-item-renderer')).slice(from, to).map(card => ({"
+        + "  channel: text(card, '#author-text'),"
+        + "  posted: text(card, '#published-time-text'),"
+        + "  body: text(card, '#content-text, #home-content-text'),"
+        + "  likes: text(card, '#vote-count-middle'),"
+        + "  comments: text(card, '#reply-button-end'),"
+        + "  lines: card.innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0)"
+        + "}));";
 
     public Wrappers(WebDriver driver) {
         this.driver = driver;
-        this.wait = new FluentWait<>(driver)
-            .withTimeout(Duration.ofSeconds(25))
-            .pollingEvery(Duration.ofMillis(500))
-            .ignoring(StaleElementReferenceException.class);
+        this.wait = new PageWait(driver, Duration.ofSeconds(25));
+        this.sidebarWait = new PageWait(driver, Duration.ofSeconds(10));
         this.js = (JavascriptExecutor) driver;
         helpers = new Helpers(driver);
     }
 
     public void navigate(String url) {
-        if (url == null || url.isBlank()) {
-            throw new IllegalArgumentException("URL must be provided.");
-        }
-        logCommand("Navigate", url);
-        driver.get(url);
+        navigate(url, pageName(url));
     }
 
-    public void search(String text) {
-        String locator = "//input[@name='search_query' or contains(@placeholder,'Search') and not(@readonly)]";
-        WebElement input = wait.until(ExpectedConditions.visibilityOfElementLocated(By.xpath(locator)));
+    // Page is the name budgets and metrics are reported under, the sidebar tab for route navigations
+    private void navigate(String url, String page) {
+        StepTimer.run("navigate", () -> {
+            if (url == null || url.isBlank()) {
+                throw new IllegalArgumentException("URL must be provided.");
+            }
+            logCommand("Navigate", url);
+            Helpers.flushLog();
+            locators.invalidate();
+            shelfCards.clear();
+            initialData = null;
+            RequestBlocker.beginNavigation(driver);
+            long started = System.nanoTime();
+            driver.get(url);
+            long elapsed = (System.nanoTime() - started) / 1000000;
+            RequestBlocker.endNavigation(driver, url);
+            PageMetrics.capture(driver, page, url, elapsed);
+        });
+    }
 
-        input.sendKeys(Keys.chord(Keys.CONTROL, "a"));
-        input.sendKeys(Keys.DELETE);
-        if (input.getAttribute("value") != null && !input.getAttribute("value").isBlank()) {
-            ((JavascriptExecutor) driver).executeScript("arguments[0].value='';", input);
-        }
+    // "home" for the site root, otherwise the URL path such as "feed/trending"
+    private static String pageName(String url) {
+        String path = url == null ? "" : url.replaceFirst("^https?://[^/]+", "").replaceFirst("[?#].*$", "")
+            .replaceAll("^/+|/+$", "");
+        return path.isEmpty() ? "home" : path;
+    }
 
-        input.sendKeys(text+Keys.ENTER);
-        waitForResults();
+    // Waits in the page for a visible match of the locator
+    private WebElement find(Locator locator) {
+        return find(locator, wait);
+    }
+
+    private static WebElement find(Locator locator, PageWait pageWait) {
+        return (WebElement) pageWait.untilScript(FIND_VISIBLE_SCRIPT, locator.css, locator.xpath);
+    }
+
+    public void search(String text) {
+        StepTimer.run("search", () -> {
+            String locator = "//input[@name='search_query' or contains(@placeholder,'Search') and not(@readonly)]";
+            WebElement input = wait.until(ExpectedConditions.visibilityOfElementLocated(By.xpath(locator)));
+
+            input.sendKeys(Keys.chord(Keys.CONTROL, "a"));
+            input.sendKeys(Keys.DELETE);
+            if (input.getAttribute("value") != null && !input.getAttribute("value").isBlank()) {
+                ((JavascriptExecutor) driver).executeScript("arguments[0].value='';", input);
+            }
+
+            input.sendKeys(text+Keys.ENTER);
+            initialData = null;
+            waitForResults();
+        });
     }
 
     public void waitForResults() {
-        String locator = ".//div[@id='content'][1]/div[position() > 1 and position() < last()]";
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-            .until(ExpectedConditions.visibilityOfElementLocated(By.xpath("//body")));
-        List<WebElement> rows = wait.until(ExpectedConditions.refreshed(
-            ExpectedConditions.visibilityOfAllElementsLocatedBy(By.xpath(locator))
-        ));
-        if (rows.isEmpty()) {
-            throw new RuntimeException("No search results found");
-        }
+        StepTimer.run("waitForResults", () -> {
+            String locator = ".//div[@id='content'][1]/div[position() > 1 and position() < last()]";
+            wait.settle(Duration.ofMillis(300), Duration.ofSeconds(2));
+            List<WebElement> rows = wait.until(ExpectedConditions.refreshed(
+                ExpectedConditions.visibilityOfAllElementsLocatedBy(By.xpath(locator))
+            ));
+            if (rows.isEmpty()) {
+                throw new RuntimeException("No search results found");
+            }
+        });
     }
 
     public Boolean filter(String filter) {
@@ -112,212 +224,295 @@ public class Wrappers {
         return applied;
     }
 
-    // Wrapper method for navigating to sidebar tabs
+    // Sidebar tabs with stable addresses, overridable per tab with -Dsidebar.route.<tab>=<url>. About has no route,
+    // testCase01 is defined as clicking it at the bottom of the sidebar, so that tab always takes the click path
+    private static final Map<String, String> SIDEBAR_ROUTES = Map.of(
+        "films", "https://www.youtube.com/feed/storefront",
+        "movies", "https://www.youtube.com/feed/storefront",
+        "music", "https://www.youtube.com/channel/UC-9-kyTW8ZkZNDHQJ6FgpwQ",
+        "news", "https://www.youtube.com/channel/UCYfdidRxbB8Qhf0Nx7ioOYw",
+        "sports", "https://www.youtube.com/channel/UCEgdi0XIXXZ-qJOFPf4JSKw",
+        "gaming", "https://www.youtube.com/gaming",
+        "trending", "https://www.youtube.com/feed/trending");
+    private static final String HOME_URL = "https://www.youtube.com";
+
+    private static final String SIDEBAR_TITLE_XPATH = "//ytd-guide-entry-renderer//a[@title='%s']";
+    private static final String SIDEBAR_TEXT_XPATH =
+        "//ytd-guide-entry-renderer//a[normalize-space()='%1$s' or .//*[normalize-space()='%1$s']]";
+    private static final String SIDEBAR_GUIDE_XPATH =
+        "//div[contains(@id,'guide-links')]/a[contains(@text(),'%s') or normalize-space()='%1$s' or contains(@href,'%s')]";
+
+    // Wrapper method for navigating to sidebar tabs, by direct URL when the tab has a known route
     public Boolean navigateSidebar(String tab) {
-        if(tab == null || tab.isBlank()) {
-            logCommand("navigateSidebar", "Empty tab");
-            return false;
-        }
-        logCommand("Navigate Sidebar", tab);
-        String titleLocator = "//ytd-guide-entry-renderer//a[@title='%s']";
-        String textOrAriaLocator =
-            "//ytd-guide-entry-renderer//a[normalize-space()='%1$s' or .//*[normalize-space()='%1$s']]";
-        String guideLocator = "//div[contains(@id,'guide-links')]/a[contains(@text(),'%s') or normalize-space()='%1$s' or contains(@href,'%s')]";
-
-        String locators = 
-            String.format(titleLocator, tab) + "|" +
-            String.format(textOrAriaLocator, tab) + "|" +
-            String.format(guideLocator, tab, tab.toLowerCase(Locale.ROOT));
-        String showMoreLocator =
-            String.format(textOrAriaLocator, "Show more") + "|" +
-            String.format(guideLocator, "Show more", "show more".toLowerCase(Locale.ROOT));
+        return StepTimer.time("navigateSidebar", () -> {
+            if(tab == null || tab.isBlank()) {
+                logCommand("navigateSidebar", "Empty tab");
+                return false;
+            }
+            logCommand("Navigate Sidebar", tab);
+            String key = tab.trim().toLowerCase(Locale.ROOT);
+            String route = System.getProperty("sidebar.route." + key, SIDEBAR_ROUTES.get(key));
+            if (route != null && !route.isBlank()) {
+                navigate(route, key);
+                if (routeReached(route)) {
+                    sidebarPath = "route";
+                    logCommand("Sidebar Path", tab + " via route " + route);
+                    return true;
+                }
+                logCommand("Sidebar Path", tab + " route check failed at " + driver.getCurrentUrl() + ", using the sidebar");
+                navigate(HOME_URL);
+            }
+            long started = System.nanoTime();
+            boolean clicked = clickSidebar(tab);
+            if (clicked) {
+                PageMetrics.capture(driver, key, driver.getCurrentUrl(), (System.nanoTime() - started) / 1000000);
+            }
+            sidebarPath = clicked ? "click" : "none";
+            logCommand("Sidebar Path", tab + (clicked ? " via sidebar click" : " not reached"));
+            return clicked;
+        });
+    }
+
+    // How the last navigateSidebar call got there: "route", "click" or "none"
+    public String sidebarPath() {
+        return sidebarPath;
+    }
+
+    private boolean routeReached(String route) {
+        String expected = route.replaceFirst("^https?://(www\\.)?", "").replaceFirst("/$", "");
+        String current = driver.getCurrentUrl();
+        return current != null && current.contains(expected);
+    }
+
+    // Guided path through "Show more" and the tab's link, waits less than the page timeout so a missing tab fails fast
+    private boolean clickSidebar(String tab) {
+        Locator tabLocator = LocatorRegistry.compile("sidebar", tab, () -> new Locator(
+            String.format(SIDEBAR_TITLE_XPATH, tab) + "|" +
+            String.format(SIDEBAR_TEXT_XPATH, tab) + "|" +
+            String.format(SIDEBAR_GUIDE_XPATH, tab, tab.toLowerCase(Locale.ROOT)),
+            String.format("ytd-guide-entry-renderer a[title=\"%s\"]", tab)));
+        Locator showMoreLocator = LocatorRegistry.compile("sidebar", "Show more", () -> Locator.xpath(
+            String.format(SIDEBAR_TEXT_XPATH, "Show more") + "|" +
+            String.format(SIDEBAR_GUIDE_XPATH, "Show more", "show more")));
 
         try {
-            wait.until(ExpectedConditions.elementToBeClickable(By.xpath(showMoreLocator))).click();
-            WebElement element = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(locators)));
+            find(showMoreLocator, sidebarWait).click();
+            WebElement element = find(tabLocator, sidebarWait);
             helpers.scrollToElement(element);
+            Helpers.flushLog();
             element.click();
+            locators.invalidate();
+            shelfCards.clear();
+            initialData = null;
             return true;
         } catch (TimeoutException ignored) {
            logCommand("navigateSidebar", String.format("'Show more' button or '%s' not found.", tab));
+           FailureArtifacts.capture(driver, "navigateSidebar " + tab, "//ytd-guide-renderer");
         }
         return false;
     }
 
-    // Wrapper method for printing page content like headings and paragraphs
-    public Boolean printPageContent() {
-        String locator = "//h1 | //h2[contains(@class,'%s')] | //h3 | //p";
-        List<WebElement> elements = wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(By.xpath(locator)));
-        if (elements.isEmpty()) {
-            logCommand("Page Content", "No content found");
-            return false;
+    // Parsed ytInitialData of the current page, or null when the engine is off or the page has none
+    private InitialDataModel initialData() {
+        if (!INITIAL_DATA) {
+            return null;
         }
-        logCommand("Page Content","");
-        for (WebElement element : elements) {
-            helpers.scrollToElement(element);
-            logCommand("", element.getText());
+        if (initialData == null) {
+            try {
+                initialData = StepTimer.time("initialData", () -> {
+                    String json = (String) js.executeScript(INITIAL_DATA_SCRIPT);
+                    return json == null ? InitialDataModel.empty() : InitialDataModel.parse(new StringReader(json));
+                });
+                logCommand("Initial Data", initialData.isEmpty() ? "Not available, reading the page" : initialData.summary());
+            } catch (RuntimeException e) {
+                logCommand("Initial Data", "Unable to parse: " + e.getMessage());
+                initialData = InitialDataModel.empty();
+            }
         }
-        return true;
+        return initialData.isEmpty() ? null : initialData;
     }
 
-    // Wrapper method for validating locator of Film Card
-    private String checkFilm(String section, String position) {
-        waitForResults();
-        if (filmCardlocator != null && !filmCardlocator.isBlank()) {
-            return filmCardlocator;
+    // Wrapper method for printing page content like headings and paragraphs
+    public Boolean printPageContent() {
+        return printPageContent(Integer.getInteger("page.content.maxBlocks", 0), Integer.getInteger("page.content.maxChars", 0));
+    }
+
+    // Prints up to maxBlocks headings and paragraphs, each cut at maxChars, zero meaning no limit
+    public Boolean printPageContent(int maxBlocks, int maxChars) {
+        return StepTimer.time("printPageContent", () -> {
+            Map<String, Object> content;
+            try {
+                content = JsonValues.map(wait.untilScript(PAGE_CONTENT_SCRIPT, maxBlocks, maxChars));
+            } catch (TimeoutException e) {
+                content = null;
+            }
+            if (content == null) {
+                logCommand("Page Content", "No content found");
+                return false;
+            }
+            // The page heading is still read through the element so the driver log records the visible text
+            WebElement heading = (WebElement) content.get("heading");
+            logCommand("Page Content", heading == null ? "" : heading.getText());
+            // Blocks go through the log sink, which writes them to the console in batches
+            for (Object block : JsonValues.list(content.get("blocks"))) {
+                logCommand("", JsonValues.strings(block).get(1));
+            }
+            long omitted = ((Number) content.get("omitted")).longValue();
+            if (omitted > 0) {
+                logCommand("Page Content", omitted + " more blocks not printed");
+            }
+            return true;
+        });
+    }
+
+    // Wrapper method for reading a film card with its certificate and category in one extraction
+    public FilmCard getFilmCard(String section, String position) {
+        int index = positionIndex("getFilmCard", position);
+        String key = "film|" + section + "|" + index;
+        FilmCard cached = (FilmCard) shelfCards.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        InitialDataModel model = initialData();
+        FilmCard film = model == null ? null : model.film(section, index);
+        if (film == null) {
+            Map<String, Object> card = checkFilm(section, index);
+            if (card == null) {
+                // Not cached, the shelf may still be loading when the next check asks for it
+                return null;
+            }
+            String title = String.valueOf(card.get("title"));
+            // The card's text starts with its title, which must not be read as the category
+            List<String> lines = JsonValues.strings(card.get("lines"));
+            lines.remove(title);
+            film = new FilmCard(section, ((Number) card.get("index")).intValue(), title,
+                FilmCard.certificateOf(JsonValues.strings(card.get("badges"))), FilmCard.categoryOf(lines));
         }
+        ResultWriter.write(film);
+        shelfCards.put(key, film);
+        return film;
+    }
 
+    private Map<String, Object> checkFilm(String section, int index) {
         String sectionLocator = "//ytd-item-section-renderer%s";
-        String filmLocator = "//ytd-grid-movie-renderer[position()=%s]";
-        
-
         if (section != null && !section.isBlank()) {
             sectionLocator = String.format(sectionLocator, String.format("[.//span[contains(text(),'%s')]]", section));
         } else {
             sectionLocator = String.format("("+sectionLocator+"[contains(@class,'ytd-section-list-renderer')])[2]","");
         }
-        WebElement rightScrollButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath("("+sectionLocator+"//button)[3]")));
-        helpers.scrollToElement(rightScrollButton);
-        if (position != null && !position.isBlank()) {
-            if (position.matches("last") || position.matches("last()")) {
-                rightScrollButton.click();
-                rightScrollButton.click();
-                filmLocator = sectionLocator + String.format(filmLocator, "last()");
-            } else if (12<Integer.parseInt(position) && Integer.parseInt(position)<=16) {
-                rightScrollButton.click();
-                rightScrollButton.click();
-                filmLocator = sectionLocator + String.format(filmLocator, position);
-            } else if (6<Integer.parseInt(position) && Integer.parseInt(position)<=12) {
-                rightScrollButton.click();
-                filmLocator = sectionLocator + String.format(filmLocator, position);
-            } else if (1<=Integer.parseInt(position) && Integer.parseInt(position)<=6) {
-                filmLocator = sectionLocator + String.format(filmLocator, position);
-            } else if (position.matches("first") || position.matches("first()")) {
-                filmLocator = sectionLocator + String.format(filmLocator, "1");
-            } else {
-                logCommand("checkFilm", "Invalid position: " + position);
-                filmLocator = sectionLocator + String.format(filmLocator, "1");
-            }
-        } else {
-            filmLocator = sectionLocator + String.format(filmLocator, "1");
-        }
-        filmCardlocator = filmLocator;
-        return filmLocator;
+        return readShelfCard("checkFilm", sectionLocator, "ytd-grid-movie-renderer", "badge-shape", index);
     }
 
     // Wrapper method for validating Film Certificate
     public Boolean checkFilmCertificate(String section, String position) {
-        String filmLocator = checkFilm(section, position);
-        try {
-            WebElement certificateElement = wait.until(ExpectedConditions.visibilityOfElementLocated(
-                By.xpath("(" + filmLocator + "//badge-shape)[3]/div")));
-            helpers.scrollToElement(certificateElement);
-            String certificate = certificateElement.getText();
-            Set<String> validCertificates = Set.of("A", "U/A", "U", "PG", "R", "NC-17");
+        return StepTimer.time("checkFilmCertificate", () -> {
+            FilmCard film = getFilmCard(section, position);
+            if (film == null) {
+                logCommand("Film Certificate", "Certificate element not found");
+                return false;
+            }
+            String certificate = film.certificate();
             if (certificate == null || certificate.isBlank()) {
                 logCommand("Film Certificate", "Certificate not found");
                 return false;
-            } else if (validCertificates.stream().anyMatch(c -> c.equalsIgnoreCase(certificate))) {
+            } else if (FilmCard.CERTIFICATES.stream().anyMatch(c -> c.equalsIgnoreCase(certificate))) {
                 logCommand("Film Certificate", "Certificate found : " + certificate);
                 return true;
             } else {
                 logCommand("Film Certificate", "Invalid certificate found: " + certificate);
                 return false;
             }
-        } catch (TimeoutException e) {
-            logCommand("Film Certificate", "Certificate element not found");
-            return false;
-        }
+        });
     }
 
     // Wrapper method for validating Film Category
     public Boolean checkFilmCategory(String section, String position) {
-        String filmLocator = checkFilm(section, position);
-        try {
-            WebElement categoryElement = wait.until(ExpectedConditions.presenceOfElementLocated(
-                By.xpath(filmLocator)));
-            List<String> lines = (List<String>) js.executeScript(
-                "return arguments[0].innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0);",
-                categoryElement
-            );
-            helpers.scrollToElement(categoryElement);
-            String category = lines.get(5).split(" ")[0].trim();
-
-            Set<String> validCategories = Set.of("Action and adventure", "Comedy", "Crime", "Drama", "Horror", "Indian cinema", "Romance", "Science fiction", "Thriller", "Animation", "Documentary", "Family", "Fantasy", "Music", "War");
+        return StepTimer.time("checkFilmCategory", () -> {
+            FilmCard film = getFilmCard(section, position);
+            if (film == null) {
+                logCommand("Film Category", "Category element not found");
+                return false;
+            }
+            String category = film.category();
             if (category == null || category.isBlank()) {
                 logCommand("Film Category", "Category not found");
                 return false;
-            } else if (validCategories.stream().anyMatch(c -> c.equalsIgnoreCase(category))) {
+            } else if (FilmCard.CATEGORIES.stream().anyMatch(c -> c.equalsIgnoreCase(category))) {
                 logCommand("Film Category", "Category found : " + category);
                 return true;
             } else {
                 logCommand("Film Category", "Invalid category found: " + category);
                 return false;
             }
-        } catch (TimeoutException e) {
-            logCommand("Film Category", "Category element not found");
-            return false;
-        }
+        });
     }
 
-    // Wrapper method for validating locator of Music Playlist Card
-    private String checkMusic(String section, String position) throws InterruptedException {
-        waitForResults();
-        if (musicCardLocator != null && !musicCardLocator.isBlank()) {
-            return musicCardLocator;
+    // Wrapper method for reading the Music Playlist Card
+    public PlaylistCard getPlaylistCard(String section, String position) {
+        int index = positionIndex("getPlaylistCard", position);
+        String key = "music|" + section + "|" + index;
+        PlaylistCard cached = (PlaylistCard) shelfCards.get(key);
+        if (cached != null) {
+            return cached;
         }
-
-        String sectionLocator = "//ytd-rich-shelf-renderer%s";
-        String musicLocator = "//ytd-rich-item-renderer[position()=%s]";
-        
-
-        if (section != null && !section.isBlank()) {
-            if (section.matches("\\d+")) {
-                Integer n = Integer.parseInt(section);
-                if (0 < n && n <= 12) {
-                    sectionLocator = String.format(sectionLocator, String.format("[%s]", n));
-                } else {
-                    logCommand("checkMusic", "Invalid section number: " + section+". Defaulting to first section.");
-                    sectionLocator = String.format(sectionLocator, "[1]");
-                }
-            } else {
-                sectionLocator = String.format(sectionLocator, String.format("[.//span[contains(text(),'%s')]]", section));
-            }
-        } else {
-            sectionLocator = String.format("("+sectionLocator+")[1]","");
+        InitialDataModel model = initialData();
+        PlaylistCard fromModel = model == null ? null : model.playlist(section, index);
+        if (fromModel != null) {
+            ResultWriter.write(fromModel);
+            shelfCards.put(key, fromModel);
+            return fromModel;
+        }
+        Locator sectionLocator = shelfLocator("checkMusic", section);
+        Map<String, Object> card = readShelfCard("checkMusic", sectionLocator.xpath, "ytd-rich-item-renderer",
+            "a yt-thumbnail-overlay-badge-view-model div", index);
+        if (card == null) {
+            return null;
         }
-        WebElement showMoreButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath("("+sectionLocator+"//button)[1]")));
-        helpers.scrollToElement(showMoreButton);
+        List<String> badges = JsonValues.strings(card.get("badges"));
+        PlaylistCard playlist = new PlaylistCard(section, ((Number) card.get("index")).intValue(), String.valueOf(card.get("title")),
+            (int) CountParser.parse(badges.size() > 2 ? badges.get(2) : ""));
+        ResultWriter.write(playlist);
+        shelfCards.put(key, playlist);
+        return playlist;
+    }
+
+    // Maps "first", "last" or a 1-based number to a card index, -1 meaning the last card
+    private static int positionIndex(String caller, String position) {
         if (position != null && !position.isBlank()) {
             if (position.matches("last") || position.matches("last()")) {
-                showMoreButton.click();
-                musicCardLocator = sectionLocator + String.format(musicLocator, "last()");
-            } else if (4<Integer.parseInt(position) && Integer.parseInt(position)<=12) {
-                showMoreButton.click();
-                musicCardLocator = sectionLocator + String.format(musicLocator, position);
-            } else if (1<=Integer.parseInt(position) && Integer.parseInt(position)<=4) {
-                musicCardLocator = sectionLocator + String.format(musicLocator, position);
-            } else if (position.matches("first") || position.matches("first()")) {
-                musicCardLocator = sectionLocator + String.format(musicLocator, "1");
-            } else {
-                logCommand("checkMusic", "Invalid position: " + position);
-                musicCardLocator = sectionLocator + String.format(musicLocator, "1");
+                return -1;
+            } else if (position.matches("\\d+") && Integer.parseInt(position) >= 1) {
+                return Integer.parseInt(position);
+            } else if (!position.startsWith("first")) {
+                logCommand(caller, "Invalid position: " + position);
             }
-        } else {
-            musicCardLocator = sectionLocator + String.format(musicLocator, "1");
         }
-        return musicCardLocator;
+        return 1;
+    }
+
+    // Reads one card of a shelf with all its fields in a single in-page wait. Cards already in the DOM are
+    // addressed directly instead of scrolling the carousel, a collapsed shelf is expanded by the page itself
+    private Map<String, Object> readShelfCard(String caller, String shelfXPath, String cardCss, String badgeCss, int index) {
+        waitForResults();
+        try {
+            return JsonValues.map(wait.untilScript(SHELF_CARD_SCRIPT, shelfXPath, cardCss, badgeCss, index));
+        } catch (TimeoutException e) {
+            logCommand(caller, String.format("Card %s not found in %s", index < 0 ? "last" : String.valueOf(index), shelfXPath));
+            FailureArtifacts.capture(driver, caller + " card " + index, shelfXPath);
+            return null;
+        }
     }
 
     // Wrapper method for validating number of tracks in Music Playlist
     public Integer checkMusicTrackCount(String section, String position) throws InterruptedException {
-        String musicLocator = checkMusic(section, position);
-        try {
-            WebElement trackCountElement = wait.until(ExpectedConditions.visibilityOfElementLocated(
-                By.xpath("("+musicLocator+"//a//yt-thumbnail-overlay-badge-view-model//div)[3]")));
-            helpers.scrollToElement(trackCountElement);
-            String trackCountText = trackCountElement.getText();
-            int trackCount = Integer.parseInt(trackCountText.split(" ")[0].trim());
+        return StepTimer.time("checkMusicTrackCount", () -> {
+            PlaylistCard playlist = getPlaylistCard(section, position);
+            if (playlist == null) {
+                logCommand("Music Track Count Exception", "Playlist card not found");
+                return 0;
+            }
+            logCommand("Music Playlist", playlist.title());
+            int trackCount = playlist.trackCount();
             if (trackCount > 0) {
                 logCommand("Music Track Count", "Track count found : " + trackCount);
                 return trackCount;
@@ -325,163 +520,277 @@ public class Wrappers {
                 logCommand("Music Track Count", "No tracks found");
                 return 0;
             }
-        } catch (TimeoutException e) {
-            logCommand("Music Track Count Exception", musicLocator);
-            return 0;
-        }
+        });
     }
 
     // Wrapper method for validating locator of News Card
-    private String checkNews(String section, String position) throws InterruptedException {
+    private Locator checkNews(String section, String position) throws InterruptedException {
         waitForResults();
-        String sectionLocator = "//ytd-rich-shelf-renderer%s";
-        String newsLocator = "//ytd-rich-item-renderer[position()=%s]";
-
-        if (section != null && !section.isBlank()) {
-            if (section.matches("\\d+")) {
-                Integer n = Integer.parseInt(section);
-                if (0 < n && n <= 12) {
-                    sectionLocator = String.format(sectionLocator, String.format("[%s]", n));
+        return locators.resolve("news", section, position, () -> {
+            Locator sectionLocator = shelfLocator("checkNews", section);
+            String showMoreLocator = String.format("("+sectionLocator.xpath+"//button)[contains(text(),'%s') or contains(@aria-label,'%s')]", "Show more", "Show more");
+            WebElement showMoreButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(showMoreLocator)));
+            String card = "1";
+            if (position != null && !position.isBlank()) {
+                if (position.matches("last") || position.matches("last()")) {
+                    showMoreButton.click();
+                    card = "last()";
+                } else if (position.matches("first") || position.matches("first()")) {
+                    card = "1";
+                } else if (position.matches("\\d+") && 4<=Integer.parseInt(position) && Integer.parseInt(position)<=12) {
+                    showMoreButton.click();
+                    card = position;
+                } else if (position.matches("\\d+") && 1<=Integer.parseInt(position) && Integer.parseInt(position)<4) {
+                    card = position;
                 } else {
-                    logCommand("checkNews", "Invalid section number: " + section+". Defaulting to first section.");
-                    sectionLocator = String.format(sectionLocator, "[1]");
+                    logCommand("checkNews", "Invalid position: " + position);
                 }
-            } else {
-                sectionLocator = String.format(sectionLocator, String.format("[.//span[contains(text(),'%s')]]", section));
             }
-        } else {
-            sectionLocator = String.format("("+sectionLocator+")[1]","");
-        }
-        String showMoreLocator = String.format("("+sectionLocator+"//button)[contains(text(),'%s') or contains(@aria-label,'%s')]", "Show more", "Show more");
-        WebElement showMoreButton = wait.until(ExpectedConditions.elementToBeClickable(By.xpath(showMoreLocator)));
-        if (position != null && !position.isBlank()) {
-            if (position.matches("last") || position.matches("last()")) {
-                showMoreButton.click();
-                newsCardLocator = sectionLocator + String.format(newsLocator, "last()");
-            } else if (4<=Integer.parseInt(position) && Integer.parseInt(position)<=12) {
-                showMoreButton.click();
-                newsCardLocator = sectionLocator + String.format(newsLocator, position);
-            } else if (1<=Integer.parseInt(position) && Integer.parseInt(position)<4) {
-                newsCardLocator = sectionLocator + String.format(newsLocator, position);
-            } else if (position.matches("first") || position.matches("first()")) {
-                newsCardLocator = sectionLocator + String.format(newsLocator, "1");
-            } else {
-                logCommand("checkNews", "Invalid position: " + position);
-                newsCardLocator = sectionLocator + String.format(newsLocator, "1");
+            return shelfCardLocator(sectionLocator, card);
+        });
+    }
+
+    // Resolves a rich shelf by number or heading text, numbered shelves also get a CSS equivalent
+    private Locator shelfLocator(String caller, String section) {
+        String key = section == null ? "" : section;
+        return LocatorRegistry.compile("shelf", key, () -> {
+            if (section != null && !section.isBlank()) {
+                if (section.matches("\\d+")) {
+                    int n = Integer.parseInt(section);
+                    if (0 < n && n <= 12) {
+                        return new Locator(String.format("//ytd-rich-shelf-renderer[%d]", n),
+                            String.format("ytd-rich-shelf-renderer:nth-of-type(%d)", n));
+                    }
+                    logCommand(caller, "Invalid section number: " + section+". Defaulting to first section.");
+                    return new Locator("//ytd-rich-shelf-renderer[1]", "ytd-rich-shelf-renderer:nth-of-type(1)");
+                }
+                return Locator.xpath(String.format("//ytd-rich-shelf-renderer[.//span[contains(text(),'%s')]]", section));
             }
-        } else {
-            newsCardLocator = sectionLocator + String.format(newsLocator, "1");
+            return Locator.xpath("(//ytd-rich-shelf-renderer)[1]");
+        });
+    }
+
+    private static Locator shelfCardLocator(Locator section, String card) {
+        String xpath = section.xpath + String.format("//ytd-rich-item-renderer[position()=%s]", card);
+        if (section.css == null) {
+            return Locator.xpath(xpath);
         }
-        return newsCardLocator;
+        String cardCss = card.equals("last()") ? ":last-of-type" : ":nth-of-type(" + card + ")";
+        return new Locator(xpath, section.css + " ytd-rich-item-renderer" + cardCss);
     }
 
     // Wrapper method for getting details of News Card
-    public Map<String, String> getNewsDetails(String section, String position) throws InterruptedException {
-        String newsLocator = checkNews(section, position);
-        if (newsLocator == null || newsLocator.isBlank()) {
-            logCommand("News Details", "News locator not found");
-            return getNewsPost(section, position);
-        }
-        try {
-            WebElement newsCardElement = wait.until(ExpectedConditions.visibilityOfElementLocated(
-                By.xpath(newsLocator)));
-            helpers.scrollToElement(newsCardElement);
-            List<String> lines = (List<String>) js.executeScript(
-                "return arguments[0].innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0);",
-                newsCardElement
-            );
-            String title = lines.get(0).trim();
-            String body = lines.size() > 1 ? lines.get(1).trim() : "";
-            logCommand("News Details", "Title: " + title + " | Body: " + body);
-            Map<String, String> details = new LinkedHashMap<>();
-            details.put("title", title);
-            details.put("body", body);
-            return details;
-        } catch (TimeoutException e) {
-            logCommand("News Details Exception", newsLocator);
-            return Map.of();
-        }
+    public NewsPost getNewsDetails(String section, String position) throws InterruptedException {
+        return StepTimer.time("getNewsDetails", () -> {
+            Locator newsLocator = checkNews(section, position);
+            if (newsLocator == null) {
+                logCommand("News Details", "News locator not found");
+                return getNewsPost(section, position);
+            }
+            try {
+                WebElement newsCardElement = wait.until(ExpectedConditions.visibilityOfElementLocated(
+                    newsLocator.by()));
+                helpers.scrollToElement(newsCardElement);
+                List<String> lines = JsonValues.strings(js.executeScript(
+                    "return arguments[0].innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0);",
+                    newsCardElement
+                ));
+                String title = lines.get(0).trim();
+                String body = lines.size() > 1 ? lines.get(1).trim() : "";
+                logCommand("News Details", "Title: " + title + " | Body: " + body);
+                NewsPost post = new NewsPost(section, positionIndex("getNewsDetails", position), "", "", title, body, 0, 0);
+                ResultWriter.write(post);
+                return post;
+            } catch (TimeoutException e) {
+                logCommand("News Details Exception", newsLocator.toString());
+                FailureArtifacts.capture(driver, "getNewsDetails " + section, newsLocator.xpath);
+                return null;
+            }
+        });
     }
 
     // Wrapper method for getting details of News Post along with likes and comments count
-    public Map<String, String> getNewsPost(String section, String position) throws InterruptedException {
-        String newsLocator = checkNews(section, position);
-        try {
-            WebElement newsCardElement = wait.until(ExpectedConditions.presenceOfElementLocated(
-                By.xpath(newsLocator)));
-            helpers.scrollToElement(By.xpath(newsLocator));
-            List<String> lines = (List<String>) js.executeScript(
-                "return arguments[0].innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0);",
-                newsCardElement
-            );
-            String line = lines.stream().collect(Collectors.joining(" | "));
-            String[] parts = line.split("\\|");
-            for (int i = 0; i < parts.length; i++) {
-                parts[i] = parts[i].trim();
+    public NewsPost getNewsPost(String section, String position) throws InterruptedException {
+        return StepTimer.time("getNewsPost", () -> {
+            Locator newsLocator = checkNews(section, position);
+            try {
+                WebElement newsCardElement = wait.until(ExpectedConditions.presenceOfElementLocated(
+                    newsLocator.by()));
+                helpers.scrollToElement(newsLocator.by());
+                List<String> lines = JsonValues.strings(js.executeScript(
+                    "return arguments[0].innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0);",
+                    newsCardElement
+                ));
+                String line = lines.stream().collect(Collectors.joining(" | "));
+                String[] parts = line.split("\\|");
+                for (int i = 0; i < parts.length; i++) {
+                    parts[i] = parts[i].trim();
+                }
+                if (parts.length < 1) {
+                    logCommand("News Post Details Warning", "Unexpected news post format: \n\t" + line);
+                }
+                NewsPost post = new NewsPost(section, positionIndex("getNewsPost", position),
+                    parts.length > 0 ? parts[0] : "",
+                    parts.length > 2 ? parts[2] : "",
+                    parts.length > 3 ? parts[3] : "",
+                    "",
+                    parts.length > 4 ? CountParser.parse(parts[4]) : 0,
+                    parts.length > 5 ? CountParser.parse(parts[5]) : 0);
+                ResultWriter.write(post);
+                return post;
+            } catch (TimeoutException e) {
+                return null;
             }
-            if (parts.length < 1) {
-                logCommand("News Post Details Warning", "Unexpected news post format: \n\t" + line);
+        });
+    }
+
+    // Wrapper method for reading a range of news posts (1-based, inclusive) from one shelf in a single DOM pass
+    public List<NewsPost> getNewsPosts(String section, int from, int to) {
+        return StepTimer.time("getNewsPosts", () -> {
+            if (from < 1 || to < from || to > 12) {
+                logCommand("News Posts", "Invalid range: " + from + " to " + to);
+                return List.of();
             }
-            Map<String, String> details = new LinkedHashMap<>();
-            details.put("channel", parts.length > 0 ? parts[0] : "");
-            details.put("posted", parts.length > 2 ? parts[2] : "");
-            details.put("title", parts.length > 3 ? parts[3] : "");
-            details.put("likes", parts.length > 4 ? parts[4] : "0");
-            details.put("comments", parts.length > 5 ? parts[5] : "0");
-            return details;
-        } catch (TimeoutException e) {
-            return Map.of();
+            InitialDataModel model = initialData();
+            List<NewsPost> fromModel = model == null ? List.of() : model.posts(section, from, to);
+            if (!fromModel.isEmpty()) {
+                fromModel.forEach(ResultWriter::write);
+                return fromModel;
+            }
+            waitForResults();
+            Locator sectionLocator = shelfLocator("getNewsPosts", section);
+            try {
+                WebElement shelf = find(sectionLocator);
+                // Only the first three posts render until the shelf is expanded
+                if (to >= 4) {
+                    String showMoreLocator = String.format("("+sectionLocator.xpath+"//button)[contains(text(),'%s') or contains(@aria-label,'%s')]", "Show more", "Show more");
+                    wait.until(ExpectedConditions.elementToBeClickable(By.xpath(showMoreLocator))).click();
+                }
+                List<Map<String, Object>> cards = JsonValues.maps(js.executeScript(NEWS_POSTS_SCRIPT, shelf, from - 1, to));
+                List<NewsPost> posts = new ArrayList<>();
+                for (Map<String, Object> card : cards) {
+                    NewsPost post = newsPost(section, from + posts.size(), card);
+                    ResultWriter.write(post);
+                    posts.add(post);
+                }
+                if (posts.size() < to - from + 1) {
+                    logCommand("News Posts Warning", String.format("Found %d of %d posts in '%s'", posts.size(), to - from + 1, section));
+                }
+                return posts;
+            } catch (TimeoutException e) {
+                logCommand("News Posts Exception", sectionLocator.toString());
+                FailureArtifacts.capture(driver, "getNewsPosts " + section, sectionLocator.xpath);
+                return List.of();
+            }
+        });
+    }
+
+    // Maps one card from NEWS_POSTS_SCRIPT, falling back to the line layout getNewsPost reads when a field is missing
+    private static NewsPost newsPost(String section, int position, Map<String, Object> card) {
+        List<String> lines = JsonValues.strings(card.get("lines"));
+        String body = String.valueOf(card.get("body"));
+        String[] bodyLines = body.split("\n", 2);
+        return new NewsPost(section, position,
+            field(card, "channel", lines, 0),
+            field(card, "posted", lines, 2),
+            body.isEmpty() ? (lines.size() > 3 ? lines.get(3) : "") : bodyLines[0].trim(),
+            bodyLines.length > 1 ? bodyLines[1].trim() : "",
+            CountParser.parse(field(card, "likes", lines, 4)),
+            CountParser.parse(field(card, "comments", lines, 5)));
+    }
+
+    private static String field(Map<String, Object> card, String key, List<String> lines, int line) {
+        String value = String.valueOf(card.get(key)).trim();
+        if (!value.isEmpty()) {
+            return value;
         }
+        return lines.size() > line ? lines.get(line) : "";
     }
 
     // Wrapper method for validating search result details like title, views and posted time
-    public Map<String, String> searchResult(String keyword, String position) throws InterruptedException {
-        Map<String, String> results = new LinkedHashMap<>();
-        String locator = String.format("(//ytd-video-renderer)[%s]", position);
-        try {
-            Thread.sleep(1000);
-            String script = "return document.querySelectorAll('ytd-video-renderer')[" + Integer.parseInt(position) + "];";
-            WebElement searchResult = (WebElement) js.executeScript( 
-                script
-            );
-            
-            helpers.scrollToElement(searchResult);
-            
-            List<String> lines = (List<String>) js.executeScript(
-                "return arguments[0].innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0);",
-                searchResult
-            );
-            String line = lines.stream().collect(Collectors.joining(" | "));
-            String[] parts = line.split("\\|");
-            for (int i = 0; i < parts.length; i++) {
-                parts[i] = parts[i].trim();
-            }
-            Map<String, String> details = new LinkedHashMap<>();
-            for (String part : parts) {
-                String p = part.trim();
-
-                if (p.matches("(?i).*views$")) {
-                    details.put("views", part.trim());
-                } else if (p.matches("(?i)\\d+\\s+(years?|months?|days?|hours?|minutes?|mins?)\\s+ago")) {
-                    details.put("posted", part.trim());
-                } else {
-                    details.computeIfAbsent("title", k -> "").concat(part.trim());
+    public VideoCard searchResult(String keyword, String position) throws InterruptedException {
+        return StepTimer.time("searchResult", () -> {
+            int index = Integer.parseInt(position);
+            // A missing card is retried a bounded number of times instead of recursing until the stack overflows
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    // Positions are 1-based, the NodeList is not
+                    WebElement searchResult = (WebElement) js.executeScript(
+                        "return document.querySelectorAll('ytd-video-renderer')[arguments[0]];", index - 1);
+                    if (searchResult == null) {
+                        logCommand("Search Result Warning", "No search result found at position: " + position);
+                        if (attempt >= SEARCH_RESULT_RETRIES) {
+                            return null;
+                        }
+                        // One in-page scroll loop loads the missing card instead of a command per 100 px
+                        helpers.scrollUntilCount("ytd-video-renderer", index, 20, Duration.ofSeconds(10));
+                        continue;
+                    }
+
+                    helpers.scrollToElement(searchResult);
+
+                    List<String> lines = JsonValues.strings(js.executeScript(
+                        "return arguments[0].innerText.split('\\n').map(t => t.trim()).filter(t => t.length > 0);",
+                        searchResult
+                    ));
+                    String line = lines.stream().collect(Collectors.joining(" | "));
+                    String[] parts = line.split("\\|");
+                    for (int i = 0; i < parts.length; i++) {
+                        parts[i] = parts[i].trim();
+                    }
+                    String views = "", posted = "";
+                    StringBuilder title = new StringBuilder();
+                    for (String part : parts) {
+                        String p = part.trim();
+
+                        if (p.matches("(?i).*views$")) {
+                            views = p;
+                        } else if (p.matches("(?i)\\d+\\s+(years?|months?|days?|hours?|minutes?|mins?)\\s+ago")) {
+                            posted = p;
+                        } else if (!p.isEmpty()) {
+                            title.append(title.length() == 0 ? "" : " ").append(p);
+                        }
+                    }
+
+                    VideoCard card = new VideoCard(keyword, index, title.toString(), CountParser.parse(views), posted);
+                    ResultWriter.write(card);
+                    return card;
+                } catch (Exception e) {
+                    logCommand("Search Result Exception", "Error retrieving search result at position: " + position + "\nException: " + e.getMessage());
+                    return null;
                 }
             }
+        });
+    }
 
-            results.putAll(details);
-        } catch (Exception e) {
-            if (e.getMessage() != null && (e.getMessage().contains("Cannot read properties of null (reading 'innerText')") 
-                || e.getMessage().contains("Cannot read properties of null (reading 'scrollIntoView')"))) {
-                logCommand("Search Result Warning", "No search result found at position: " + position);
-                helpers.scrollDown(100);
-                Thread.sleep(1000);
-                return searchResult(keyword, position);
-            } else {
-                logCommand("Search Result Exception", "Error retrieving search result at position: " + position + "\nException: " + e.getMessage());
-                return Map.of();
+    // Wrapper method for streaming search results in page order with the next continuation prefetched
+    public SearchResultSpliterator searchStream(String keyword) {
+        return new SearchResultSpliterator(keyword, js, wait);
+    }
+
+    // Wrapper method for searching many keywords at once across tabs of this browser
+    public KeywordFanOut fanOut(int tabs) {
+        return new KeywordFanOut(driver, tabs);
+    }
+
+    // Wrapper method for reading search results from a 1-based position in bulk, one script call per loaded batch
+    public List<VideoCard> searchResults(String keyword, int fromIndex, int count) {
+        return StepTimer.time("searchResults", () -> {
+            if (fromIndex < 1 || count < 1) {
+                logCommand("Search Results", "Invalid range: " + fromIndex + ", " + count);
+                return List.of();
             }
-        }
-        return results;
+            // The embedded JSON only holds the first page of results, later slices come from the DOM
+            InitialDataModel model = initialData();
+            List<VideoCard> fromModel = model == null ? List.of() : model.videos(keyword, fromIndex, count);
+            if (!fromModel.isEmpty()) {
+                fromModel.forEach(ResultWriter::write);
+                return fromModel;
+            }
+            // Later slices are read through the search stream so the DOM cards are extracted in one place
+            return searchStream(keyword).from(fromIndex).prefetch(count).stream()
+                .limit(count)
+                .collect(Collectors.toList());
+        });
     }
 }